@@ -0,0 +1,66 @@
+package com.globallogic.technique.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globallogic.technique.exception.ErrorResponse;
+import com.globallogic.technique.exception.user.UserAlreadyExistsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a request: throwing the exception and rendering its error body.
+ * {@code mapsAndJackson} is the former per-error maps serialised through Jackson with a
+ * freshly built exception; {@code preRendered} is the shared exception and body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorResponseBenchmark {
+
+    private static final String MESSAGE = "User already exist";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorResponse preRendered = ErrorResponse.of(HttpStatus.CONFLICT, MESSAGE);
+    private final RuntimeException preallocated = new UserAlreadyExistsException(MESSAGE);
+
+    @Benchmark
+    public byte[] mapsAndJackson() throws JsonProcessingException {
+        RuntimeException exception;
+        try {
+            throw new RuntimeException(MESSAGE);
+        } catch (RuntimeException e) {
+            exception = e;
+        }
+
+        Map<String, Object> errorDetail = new LinkedHashMap<>();
+        errorDetail.put("timestamp", Instant.now().toString());
+        errorDetail.put("code", HttpStatus.CONFLICT.value());
+        errorDetail.put("detail", exception.getMessage());
+
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", Collections.singletonList(errorDetail));
+        return objectMapper.writeValueAsBytes(error);
+    }
+
+    @Benchmark
+    public byte[] preRendered() {
+        RuntimeException exception;
+        try {
+            throw preallocated;
+        } catch (RuntimeException e) {
+            exception = e;
+        }
+        return preRendered.withDetail(exception.getMessage()).render();
+    }
+}
@@ -0,0 +1,89 @@
+package com.globallogic.technique.benchmark;
+
+import com.globallogic.technique.model.Phone;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.file.FileUserStore;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of the file store operations behind sign-up and login: {@code insert} appends one
+ * record, forcing it to disk when {@code syncOnWrite} is set, and {@code findLoginView}
+ * is the lookup a login cache miss does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileUserStoreBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"true", "false"})
+    private boolean syncOnWrite;
+
+    private Path directory;
+    private FileUserStore store;
+    private UUID[] ids;
+    private int next;
+    private long inserted;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("file-user-store-benchmark");
+        store = new FileUserStore(directory, 64 * 1024 * 1024, syncOnWrite, 0.5, Long.MAX_VALUE);
+        ids = new UUID[USERS];
+        for (int i = 0; i < USERS; i++) {
+            ids[i] = store.insert(newUser("user" + i + "@example.com")).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public User insert() {
+        return store.insert(newUser("new" + inserted++ + "@example.com"));
+    }
+
+    @Benchmark
+    public Optional<UserLoginView> findLoginView() {
+        return store.findLoginView(ids[next++ & (USERS - 1)]);
+    }
+
+    private static User newUser(String email) {
+        LocalDateTime now = LocalDateTime.now();
+        return User.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BNeyLF6fz1FiSBePjIIm3BGbNbV6")
+                .isActive(true)
+                .created(now)
+                .lastLogin(now)
+                .phones(Collections.singletonList(new Phone(12345678L, 1, "57")))
+                .build();
+    }
+}
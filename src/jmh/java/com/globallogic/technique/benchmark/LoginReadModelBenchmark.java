@@ -0,0 +1,124 @@
+package com.globallogic.technique.benchmark;
+
+import com.globallogic.technique.dto.response.UserResponseDto;
+import com.globallogic.technique.model.Phone;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.UserRepository;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import com.globallogic.technique.util.UserValidation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read behind a login on the JPA store, against the application's H2 database with
+ * {@link #USERS} users of two phones each. {@code entity} is what login used to do: load
+ * the managed {@code User}, which enrols it in the persistence context with its dirty
+ * check snapshot, initialise its phone collection with a second select and copy it into
+ * the response. {@code projection} is the current read: one join into
+ * {@code UserLoginRow}s folded into a {@link UserLoginView}. Both run in a read-write
+ * transaction like the old login, and the gc profiler configured for the jmh task
+ * reports the allocation per login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoginReadModelBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final String TOKEN = "token";
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private UUID[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<User> users = new ArrayList<>(USERS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .created(now)
+                    .lastLogin(now)
+                    .isActive(true)
+                    .name("Juan Rodriguez")
+                    .email("login" + i + "@example.com")
+                    .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BNeyLF6fz1FiSBePjIIm3BGbNbV6")
+                    .phones(Arrays.asList(new Phone(87650009, 7, "25"), new Phone(12345678, 2, "56")))
+                    .build());
+        }
+        ids = transactionTemplate.execute(status -> userRepository.saveAll(users).stream()
+                .map(User::getId)
+                .toArray(UUID[]::new));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponseDto entity() {
+        UUID id = nextId();
+        return transactionTemplate.execute(status -> UserValidation.convertToLoginResponseDTO(
+                userRepository.findById(id).orElseThrow(IllegalStateException::new), TOKEN));
+    }
+
+    @Benchmark
+    public UserResponseDto projection() {
+        UUID id = nextId();
+        return transactionTemplate.execute(status -> UserValidation.convertToLoginResponseDTO(
+                UserLoginView.fromRows(userRepository.findLoginRowsById(id)).orElseThrow(IllegalStateException::new),
+                TOKEN, null));
+    }
+
+    private UUID nextId() {
+        UUID id = ids[next];
+        next = (next + 1) % ids.length;
+        return id;
+    }
+
+    /**
+     * The application's datasource and JPA setup with only the user repository.
+     */
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = UserRepository.class))
+    static class JpaOnly {
+    }
+}
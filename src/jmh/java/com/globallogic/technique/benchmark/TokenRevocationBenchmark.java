@@ -0,0 +1,75 @@
+package com.globallogic.technique.benchmark;
+
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.config.jwt.TokenRevocationList;
+import com.globallogic.technique.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the revocation check the authentication filter adds to every request.
+ * {@code notRevoked} is the common path, answered by the bloom filter alone;
+ * {@code revoked} goes through the exact set as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenRevocationBenchmark {
+
+    private static final int PRINCIPALS = 1024;
+
+    @Param({"0", "10000", "100000"})
+    private int revocations;
+
+    private TokenRevocationList revocationList;
+    private JwtPrincipal[] notRevoked;
+    private JwtPrincipal[] revoked;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        revocationList = new TokenRevocationList(TokenRevocationList.DEFAULT_EXPECTED_REVOCATIONS);
+
+        List<TokenRevocationList.Revocation> entries = new ArrayList<>();
+        revoked = new JwtPrincipal[PRINCIPALS];
+        for (int i = 0; i < revocations; i++) {
+            UUID tokenId = UuidV7.next();
+            entries.add(new TokenRevocationList.Revocation(tokenId, now.plusSeconds(239)));
+            if (i < PRINCIPALS) {
+                revoked[i] = new JwtPrincipal(UUID.randomUUID(), now.minusSeconds(1), now.plusSeconds(239), tokenId);
+            }
+        }
+        revocationList.revokeAll(entries);
+
+        notRevoked = new JwtPrincipal[PRINCIPALS];
+        for (int i = 0; i < PRINCIPALS; i++) {
+            notRevoked[i] = new JwtPrincipal(UUID.randomUUID(), now.minusSeconds(1), now.plusSeconds(239), UuidV7.next());
+            if (revoked[i] == null) {
+                revoked[i] = notRevoked[i];
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return revocationList.isRevoked(notRevoked[next++ & (PRINCIPALS - 1)]);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return revocationList.isRevoked(revoked[next++ & (PRINCIPALS - 1)]);
+    }
+}
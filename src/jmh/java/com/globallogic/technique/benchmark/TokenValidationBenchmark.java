@@ -0,0 +1,91 @@
+package com.globallogic.technique.benchmark;
+
+import com.globallogic.technique.config.jwt.Hs256TokenVerifier;
+import com.globallogic.technique.config.jwt.JjwtTokenVerifier;
+import com.globallogic.technique.config.jwt.JwtKeyRing;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.config.jwt.JwtVerifierMode;
+import com.globallogic.technique.config.jwt.TokenVerifier;
+import com.globallogic.technique.service.TokenValidationService;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and verification. {@code validateJwtToken} and {@code getUserId} measure the
+ * cached path a repeat caller takes; {@code verifyUncached} measures a full signature check.
+ * {@code ES256} signs with a {@link JwtKeyRing} key, the other modes with the HS256 secret.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-256-bits";
+
+    private static final long EXPIRATION_MS = 240_000;
+
+    @Param({"JJWT", "HS256", "ES256"})
+    private String mode;
+
+    private TokenValidationService tokenValidationService;
+    private TokenVerifier tokenVerifier;
+    private UUID userId;
+    private String token;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() {
+        if ("ES256".equals(mode)) {
+            JwtKeyRing keyRing = JwtKeyRing.generated(EXPIRATION_MS, EXPIRATION_MS);
+            tokenValidationService = new TokenValidationService(SECRET, EXPIRATION_MS,
+                    TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, JwtVerifierMode.JJWT, keyRing);
+            tokenVerifier = new JjwtTokenVerifier(keyRing.verificationKeyResolver());
+        } else {
+            JwtVerifierMode verifierMode = JwtVerifierMode.valueOf(mode);
+            tokenValidationService = new TokenValidationService(SECRET, EXPIRATION_MS,
+                    TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, verifierMode);
+
+            SecretKey secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            TokenVerifier jjwtVerifier = new JjwtTokenVerifier(secretKey);
+            tokenVerifier = verifierMode == JwtVerifierMode.HS256
+                    ? new Hs256TokenVerifier(secretKey, jjwtVerifier)
+                    : jjwtVerifier;
+        }
+
+        userId = UUID.randomUUID();
+        token = tokenValidationService.generateJwtToken(userId);
+        bearerToken = "Bearer " + token;
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return tokenValidationService.generateJwtToken(userId);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return tokenValidationService.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserId() {
+        return tokenValidationService.getUserId(bearerToken);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyUncached() {
+        return tokenVerifier.verify(token);
+    }
+}
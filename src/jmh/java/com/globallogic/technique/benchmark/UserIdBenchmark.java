@@ -0,0 +1,119 @@
+package com.globallogic.technique.benchmark;
+
+import com.globallogic.technique.util.UuidBytes;
+import com.globallogic.technique.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sign-up inserts into the user table of a file-backed H2 database that already holds
+ * {@code users} rows, with random (v4) or time-ordered (v7) ids. Each invocation inserts
+ * a batch of {@link #BATCH} users in one transaction. The page cache is kept far smaller
+ * than the table, as it would be at millions of users, so an insert at a random point of
+ * the primary key index has to load the page it lands on. The size of the database file
+ * is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserIdBenchmark {
+
+    private static final int BATCH = 50;
+    private static final String INSERT_USER =
+            "insert into user (id, created, email, is_active, last_login, name, password) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BNeyLF6fz1FiSBePjIIm3BGbNbV6";
+
+    @Param({"v4", "v7"})
+    private String idVersion;
+
+    @Param({"1000000"})
+    private int users;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private long inserted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("user-id-benchmark");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:" + directory.resolve("users") + ";MODE=PostgreSQL;CACHE_SIZE=8192", "sa", "", true);
+        connection = dataSource.getConnection();
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/reactive/schema.sql"));
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(INSERT_USER);
+        while (inserted < users) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("checkpoint sync");
+            try (ResultSet rows = statement.executeQuery("select count(*) from user")) {
+                rows.next();
+                System.out.printf("%n%s ids: %d users, database file %d MB%n", idVersion, rows.getLong(1),
+                        Files.size(directory.resolve("users.mv.db")) / (1024 * 1024));
+            }
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] insert() throws SQLException {
+        return insertBatch();
+    }
+
+    private int[] insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH; i++) {
+            insert.setBytes(1, UuidBytes.toBytes(nextId()));
+            insert.setTimestamp(2, now);
+            insert.setString(3, "user" + inserted++ + "@example.com");
+            insert.setBoolean(4, true);
+            insert.setTimestamp(5, now);
+            insert.setString(6, "Juan Rodriguez");
+            insert.setString(7, PASSWORD);
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts;
+    }
+
+    private UUID nextId() {
+        return "v7".equals(idVersion) ? UuidV7.next() : UUID.randomUUID();
+    }
+}
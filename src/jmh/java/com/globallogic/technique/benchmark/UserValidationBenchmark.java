@@ -0,0 +1,104 @@
+package com.globallogic.technique.benchmark;
+
+import com.globallogic.technique.dto.request.PhoneDto;
+import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.UserResponseDto;
+import com.globallogic.technique.model.Phone;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginRow;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import com.globallogic.technique.util.UserRequestValidator;
+import com.globallogic.technique.util.UserValidation;
+import com.globallogic.technique.util.mapper.UserMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request validation and DTO conversion on the sign-up and login paths. The two
+ * {@code convertToLoginResponseDTO} variants only copy objects that are already built;
+ * the cost of reading them is in {@link LoginReadModelBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserValidationBenchmark {
+
+    private static final String TOKEN = "token";
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+    private final UserRequestValidator userRequestValidator = new UserRequestValidator();
+
+    private UserDTO userDTO;
+    private User user;
+    private UserLoginView loginView;
+    private LocalDateTime lastLogin;
+
+    @Setup
+    public void setUp() {
+        userDTO = UserDTO.builder()
+                .name("Julio Gonzalez")
+                .email("julio@testssw.cl")
+                .password("a2asfGfdfdf4")
+                .phones(Arrays.asList(new PhoneDto(87650009, 7, "25"), new PhoneDto(12345678, 2, "56")))
+                .build();
+
+        UUID id = UUID.randomUUID();
+        LocalDateTime created = LocalDateTime.now();
+        lastLogin = created;
+        user = User.builder()
+                .id(id)
+                .created(created)
+                .lastLogin(created)
+                .isActive(true)
+                .name(userDTO.getName())
+                .email(userDTO.getEmail())
+                .password(userDTO.getPassword())
+                .phones(Arrays.asList(new Phone(87650009, 7, "25"), new Phone(12345678, 2, "56")))
+                .build();
+        loginView = UserLoginView.fromRows(Arrays.asList(
+                new UserLoginRow(id, created, true, user.getName(), user.getEmail(), user.getPassword(), 87650009L, 7, "25"),
+                new UserLoginRow(id, created, true, user.getName(), user.getEmail(), user.getPassword(), 12345678L, 2, "56")))
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return UserRequestValidator.isValidEmail(userDTO.getEmail());
+    }
+
+    @Benchmark
+    public boolean isValidPassword() {
+        return UserRequestValidator.isValidPassword(userDTO.getPassword());
+    }
+
+    @Benchmark
+    public String validateSignUpRequest() {
+        return userRequestValidator.firstViolation(userDTO);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(userDTO);
+    }
+
+    @Benchmark
+    public UserResponseDto convertToLoginResponseDTOFromEntity() {
+        return UserValidation.convertToLoginResponseDTO(user, TOKEN);
+    }
+
+    @Benchmark
+    public UserResponseDto convertToLoginResponseDTOFromView() {
+        return UserValidation.convertToLoginResponseDTO(loginView, TOKEN, lastLogin);
+    }
+}
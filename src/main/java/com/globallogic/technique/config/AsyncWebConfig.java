@@ -0,0 +1,40 @@
+package com.globallogic.technique.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+
+/**
+ * With {@code web.execution-mode=async} the user endpoints return futures completed on a
+ * bounded pool, so blocking hashing and JDBC work no longer holds a connector thread.
+ * A full pool rejects the request with 503 instead of queueing without bound.
+ */
+@Configuration
+@ConditionalOnProperty(name = "web.execution-mode", havingValue = "async")
+public class AsyncWebConfig {
+
+    public static final String USER_REQUEST_EXECUTOR = "userRequestExecutor";
+
+    @Bean(name = USER_REQUEST_EXECUTOR)
+    public ThreadPoolTaskExecutor userRequestExecutor(@Value("${web.async.pool-size:64}") int poolSize,
+                                                      @Value("${web.async.queue-capacity:1000}") int queueCapacity,
+                                                      MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("user-request-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "user.requests", Collections.emptyList())
+                .bindTo(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,12 @@
+package com.globallogic.technique.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+    public static final String USER_EMAILS_CACHE = "userEmails";
+}
@@ -0,0 +1,34 @@
+package com.globallogic.technique.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * A shared secret a caller presents in a request header, optionally after an
+ * authentication scheme such as {@code Bearer}. An empty secret matches nothing, so the
+ * endpoint it guards stays closed until one is configured. Values are compared in
+ * constant time.
+ */
+final class HeaderSecret {
+
+    private final String header;
+    private final byte[] expected;
+
+    private HeaderSecret(String header, byte[] expected) {
+        this.header = header;
+        this.expected = expected;
+    }
+
+    static HeaderSecret of(String header, String scheme, String secret) {
+        return new HeaderSecret(header, secret.isEmpty() ? null : (scheme + secret).getBytes(StandardCharsets.UTF_8));
+    }
+
+    String header() {
+        return header;
+    }
+
+    boolean matches(String presented) {
+        return expected != null && presented != null
+                && MessageDigest.isEqual(expected, presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
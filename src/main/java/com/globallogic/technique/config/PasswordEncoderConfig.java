@@ -1,15 +1,47 @@
 package com.globallogic.technique.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig {
 
+    private static final int MAX_STRENGTH = 16;
+    private static final String CALIBRATION_PASSWORD = "Calibrat10n";
+
+    /**
+     * Uses {@code password.bcrypt.strength} when set, otherwise calibrates the highest cost
+     * that hashes within {@code password.bcrypt.target-latency-ms} on the current hardware.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength:0}") int strength,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.target-latency-ms:250}") long targetLatencyMs) {
+        int cost = strength > 0 ? strength : calibrateStrength(minStrength, targetLatencyMs);
+        return new BCryptPasswordEncoder(cost);
+    }
+
+    static int calibrateStrength(int minStrength, long targetLatencyMs) {
+        new BCryptPasswordEncoder(4).encode(CALIBRATION_PASSWORD);
+
+        int selected = minStrength;
+        for (int cost = minStrength; cost <= MAX_STRENGTH; cost++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(cost).encode(CALIBRATION_PASSWORD);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            if (elapsedMs > targetLatencyMs) {
+                break;
+            }
+            selected = cost;
+        }
+
+        log.info("BCrypt cost calibrated to {} for a target latency of {} ms", selected, targetLatencyMs);
+        return selected;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.globallogic.technique.config;
+
+import com.globallogic.technique.config.datasource.PoolSizing;
+import com.globallogic.technique.repository.UserStore;
+import com.globallogic.technique.service.LastLoginBuffer;
+import com.globallogic.technique.service.RefreshTokenService;
+import com.globallogic.technique.service.StartupWarmUp;
+import com.globallogic.technique.service.TokenValidationService;
+import com.globallogic.technique.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * The {@code production} profile: application-production.properties tunes Hibernate
+ * batching and the H2 statement cache, and this configuration sizes the connection pools
+ * from the core count and warms up sign-up and login before the application is ready.
+ */
+@Configuration
+@Profile(ProductionConfig.PROFILE)
+public class ProductionConfig {
+
+    public static final String PROFILE = "production";
+
+    @Bean
+    public static PoolSizing poolSizing(@Value("${users.datasource.pool-size:0}") int poolSize) {
+        return new PoolSizing(poolSize);
+    }
+
+    @Bean
+    @Profile(ReactiveStack.NOT_PROFILE)
+    public StartupWarmUp startupWarmUp(List<HikariDataSource> pools,
+                                       UserService userService,
+                                       UserStore userStore,
+                                       TokenValidationService tokenValidationService,
+                                       RefreshTokenService refreshTokenService,
+                                       LastLoginBuffer lastLoginBuffer,
+                                       CacheManager cacheManager,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${users.warm-up.iterations:5000}") int iterations,
+                                       @Value("${users.warm-up.sign-ups:20}") int signUps) {
+        return new StartupWarmUp(pools, userService, userStore, tokenValidationService, refreshTokenService,
+                lastLoginBuffer, cacheManager, transactionTemplate, iterations, signUps);
+    }
+}
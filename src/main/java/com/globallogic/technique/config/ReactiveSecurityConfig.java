@@ -0,0 +1,62 @@
+package com.globallogic.technique.config;
+
+import com.globallogic.technique.config.exception.ReactiveJwtAuthenticationEntryPoint;
+import com.globallogic.technique.config.jwt.JwtAuthenticationWebFilter;
+import com.globallogic.technique.controller.JwksController;
+import com.globallogic.technique.service.TokenValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux equivalent of {@link SecurityConfig}: same public paths, the same scrape token
+ * for {@code /actuator/prometheus}, stateless JWT authentication for everything else and
+ * the same 401 body.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile(ReactiveStack.PROFILE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         TokenValidationService tokenValidationService,
+                                                         ReactiveJwtAuthenticationEntryPoint entryPoint,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${metrics.scrape-token:}") String scrapeToken) {
+
+        HeaderSecret scrapeSecret = HeaderSecret.of(HttpHeaders.AUTHORIZATION, SecurityConfig.SCRAPE_TOKEN_SCHEME, scrapeToken);
+
+        JwtAuthenticationWebFilter jwtFilter = new JwtAuthenticationWebFilter(tokenValidationService, entryPoint, meterRegistry);
+        http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers("/users/sign-up").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/prometheus").access((authentication, context) -> Mono.just(new AuthorizationDecision(
+                                scrapeSecret.matches(context.getExchange().getRequest().getHeaders().getFirst(scrapeSecret.header())))))
+                        .pathMatchers(JwksController.JWKS_PATH).permitAll()
+                        .anyExchange().authenticated()
+                )
+                .exceptionHandling(exception ->
+                        exception.authenticationEntryPoint(entryPoint)
+                )
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable);
+
+        return http.build();
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.globallogic.technique.config;
+
+/**
+ * The {@code reactive} profile serves the sign-up and login API with WebFlux and R2DBC
+ * instead of Spring MVC and JPA. Beans of either stack are selected with this profile.
+ */
+public final class ReactiveStack {
+
+    public static final String PROFILE = "reactive";
+    public static final String NOT_PROFILE = "!" + PROFILE;
+
+    private ReactiveStack() {
+    }
+}
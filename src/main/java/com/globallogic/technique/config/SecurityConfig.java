@@ -3,31 +3,58 @@ package com.globallogic.technique.config;
 
 import com.globallogic.technique.config.exception.JwtAuthenticationEntryPoint;
 import com.globallogic.technique.config.jwt.JwtAuthenticationFilter;
+import com.globallogic.technique.controller.JwksController;
 import com.globallogic.technique.service.TokenValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+/**
+ * Stateless JWT authentication. Sign-up, token refresh, the JWKS and
+ * {@code /actuator/health} are public.
+ * {@code /users/sign-up/batch} is an onboarding and migration tool: it only answers
+ * callers presenting {@code users.batch.api-key} in the {@value #BATCH_API_KEY_HEADER}
+ * header, and nobody while that key is empty. {@code /actuator/prometheus} likewise
+ * requires {@code metrics.scrape-token} as a bearer token, the scraper's credential.
+ */
 @Configuration
+@Profile(ReactiveStack.NOT_PROFILE)
 public class SecurityConfig {
 
+    public static final String BATCH_API_KEY_HEADER = "X-Api-Key";
+    public static final String SCRAPE_TOKEN_SCHEME = "Bearer ";
+
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
                                            TokenValidationService tokenValidationService,
-                                           JwtAuthenticationEntryPoint entryPoint) throws Exception {
+                                           JwtAuthenticationEntryPoint entryPoint,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${users.batch.api-key:}") String batchApiKey,
+                                           @Value("${metrics.scrape-token:}") String scrapeToken) throws Exception {
 
-        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(tokenValidationService, entryPoint);
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(tokenValidationService, entryPoint, meterRegistry);
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .antMatchers("/users/sign-up").permitAll()
+                        .antMatchers("/users/sign-up", "/users/token/refresh").permitAll()
+                        .antMatchers("/users/sign-up/batch").access(presented(HeaderSecret.of(BATCH_API_KEY_HEADER, "", batchApiKey)))
+                        .antMatchers("/actuator/health").permitAll()
+                        .antMatchers("/actuator/prometheus").access(presented(HeaderSecret.of(HttpHeaders.AUTHORIZATION, SCRAPE_TOKEN_SCHEME, scrapeToken)))
+                        .antMatchers(JwksController.JWKS_PATH).permitAll()
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exception ->
@@ -39,4 +66,9 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private static AuthorizationManager<RequestAuthorizationContext> presented(HeaderSecret secret) {
+        return (authentication, context) ->
+                new AuthorizationDecision(secret.matches(context.getRequest().getHeader(secret.header())));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.globallogic.technique.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Gives every Hikari pool a fixed size of {@code cores * 2 + 1} connections, the sizing
+ * recommended by HikariCP for a database on one disk, unless an explicit size is set.
+ * Minimum idle equals the maximum, so the pool never opens connections while serving.
+ */
+@Slf4j
+public class PoolSizing implements BeanPostProcessor {
+
+    private final int poolSize;
+
+    public PoolSizing(int configuredPoolSize) {
+        this.poolSize = configuredPoolSize > 0
+                ? configuredPoolSize
+                : Runtime.getRuntime().availableProcessors() * 2 + 1;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            HikariDataSource dataSource = (HikariDataSource) bean;
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setMinimumIdle(poolSize);
+            log.info("Sized connection pool {} to {} connections", beanName, poolSize);
+        }
+        return bean;
+    }
+}
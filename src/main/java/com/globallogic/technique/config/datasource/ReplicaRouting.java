@@ -0,0 +1,35 @@
+package com.globallogic.technique.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the reads that may be served by the replica. Only connections taken inside
+ * {@link #onReplica} go there, so it must only wrap reads; everything else, including
+ * reads that must see the latest writes such as the email uniqueness checks, stays on
+ * the primary.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T onReplica(Supplier<T> reads) {
+        Boolean previous = REPLICA_ALLOWED.get();
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) {
+                REPLICA_ALLOWED.remove();
+            } else {
+                REPLICA_ALLOWED.set(previous);
+            }
+        }
+    }
+
+    static boolean isReplicaAllowed() {
+        return REPLICA_ALLOWED.get() != null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.globallogic.technique.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hands out replica connections inside {@link ReplicaRouting#onReplica} and primary
+ * connections to everything else. The decision is made when the connection is taken,
+ * which the JPA transaction manager does as it begins the transaction, before the
+ * transaction's read-only flag is published; so the marker, not the flag, selects the
+ * replica. It sits behind a lazy connection proxy, so transactions that never run a
+ * statement take no connection at all.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryConnections = connectionCounter(meterRegistry, Target.PRIMARY);
+        this.replicaConnections = connectionCounter(meterRegistry, Target.REPLICA);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReplicaRouting.isReplicaAllowed()) {
+            replicaConnections.increment();
+            return Target.REPLICA;
+        }
+        primaryConnections.increment();
+        return Target.PRIMARY;
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, Target target) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the replica routing datasource")
+                .tag("target", target.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.globallogic.technique.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Stands in for database replication when the replica is a second local database: every
+ * {@code users.replica.simulated-lag-ms} it replaces the replica's users and phones with
+ * a copy of the primary's, in one transaction, so the replica lags by up to that long.
+ */
+@Slf4j
+public class SimulatedReplication {
+
+    private static final String SCHEMA = "db/replica/schema.sql";
+    private static final String SELECT_USERS =
+            "select id, created, email, is_active, last_login, name, password from user";
+    private static final String SELECT_PHONES = "select user_id, citycode, contrycode, number from user_phones";
+    private static final String INSERT_USER =
+            "insert into user (id, created, email, is_active, last_login, name, password) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PHONE =
+            "insert into user_phones (user_id, citycode, contrycode, number) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final TransactionTemplate replicaTransaction;
+
+    public SimulatedReplication(DataSource primary, DataSource replica) {
+        new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)).execute(replica);
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(replica));
+    }
+
+    @Scheduled(initialDelayString = "${users.replica.simulated-lag-ms}",
+            fixedDelayString = "${users.replica.simulated-lag-ms}")
+    public void replicate() {
+        List<Object[]> users = primary.query(SELECT_USERS, (resultSet, rowNumber) -> new Object[]{
+                resultSet.getBytes(1), resultSet.getTimestamp(2), resultSet.getString(3), resultSet.getBoolean(4),
+                resultSet.getTimestamp(5), resultSet.getString(6), resultSet.getString(7)});
+        List<Object[]> phones = primary.query(SELECT_PHONES, (resultSet, rowNumber) -> new Object[]{
+                resultSet.getBytes(1), resultSet.getInt(2), resultSet.getString(3), resultSet.getLong(4)});
+
+        replicaTransaction.executeWithoutResult(status -> {
+            replica.update("delete from user_phones");
+            replica.update("delete from user");
+            replica.batchUpdate(INSERT_USER, users);
+            replica.batchUpdate(INSERT_PHONE, phones);
+        });
+        log.debug("Replicated {} users and {} phones", users.size(), phones.size());
+    }
+}
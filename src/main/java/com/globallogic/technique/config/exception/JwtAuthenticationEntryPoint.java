@@ -1,6 +1,8 @@
 package com.globallogic.technique.config.exception;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.exception.ErrorResponse;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
@@ -10,32 +12,24 @@ import org.springframework.stereotype.Component;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.Instant;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 @Component
+@Profile(ReactiveStack.NOT_PROFILE)
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    static final ErrorResponse INVALID_TOKEN = ErrorResponse.of(HttpStatus.UNAUTHORIZED, JwtAuthenticationException.INVALID_TOKEN_MESSAGE);
 
     @Override
     public void commence(HttpServletRequest request,
                          HttpServletResponse response,
                          AuthenticationException authException) throws IOException {
 
-        Map<String, Object> errorDetails = new LinkedHashMap<>();
-        errorDetails.put("timestamp", Instant.now().toString());
-        errorDetails.put("code", HttpStatus.UNAUTHORIZED.value());
-        errorDetails.put("detail", authException.getMessage());
-
-        Map<String, Object> responseBody = new LinkedHashMap<>();
-        responseBody.put("error", Collections.singletonList(errorDetails));
+        byte[] body = INVALID_TOKEN.withDetail(authException.getMessage()).render();
 
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        objectMapper.writeValue(response.getOutputStream(), responseBody);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 
-}
\ No newline at end of file
+}
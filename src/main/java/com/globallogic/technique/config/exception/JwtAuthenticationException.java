@@ -0,0 +1,23 @@
+package com.globallogic.technique.config.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Rejection of a bearer token. Rejections are routine under credential-stuffing load, so
+ * the exception skips the stack trace and the common one is preallocated.
+ */
+public class JwtAuthenticationException extends AuthenticationException {
+
+    public static final String INVALID_TOKEN_MESSAGE = "Invalid or expired token";
+
+    public static final JwtAuthenticationException INVALID_TOKEN = new JwtAuthenticationException(INVALID_TOKEN_MESSAGE);
+
+    public JwtAuthenticationException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
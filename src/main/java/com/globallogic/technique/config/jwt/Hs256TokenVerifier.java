@@ -0,0 +1,257 @@
+package com.globallogic.technique.config.jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Verifier specialised for the exact token shape issued by
+ * {@code TokenValidationService.generateJwtToken}: a {@code {"alg":"HS256"}} header and a
+ * {@code {"sub":"<uuid>","iat":n,"exp":n,"jti":"<uuid>"}} payload, with or without the
+ * {@code jti}.
+ * <p>
+ * The token is scanned in place using a per-thread {@link Mac} and scratch buffers, so a
+ * verification allocates nothing but the resulting principal. Any token outside that shape
+ * is handed to the fallback verifier, which keeps both implementations in agreement.
+ */
+public class Hs256TokenVerifier implements TokenVerifier {
+
+    static final String HEADER = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+    private static final int UUID_LENGTH = 36;
+    private static final int MAX_NUMBER_DIGITS = 15;
+
+    private static final byte[] SUB_PREFIX = "{\"sub\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IAT_PREFIX = "\",\"iat\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXP_PREFIX = ",\"exp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JTI_PREFIX = ",\"jti\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUOTE = "\"".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec macKey;
+    private final TokenVerifier fallback;
+    private final ThreadLocal<Scratch> scratch;
+
+    public Hs256TokenVerifier(SecretKey secretKey, TokenVerifier fallback) {
+        this.macKey = new SecretKeySpec(secretKey.getEncoded(), HMAC_ALGORITHM);
+        this.fallback = fallback;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+    }
+
+    @Override
+    public JwtPrincipal verify(String token) {
+        int length = token.length();
+        int payloadStart = HEADER.length() + 1;
+        int payloadEnd = length - ENCODED_SIGNATURE_LENGTH - 1;
+
+        if (payloadEnd <= payloadStart
+                || !token.startsWith(HEADER)
+                || token.charAt(payloadStart - 1) != '.'
+                || token.charAt(payloadEnd) != '.') {
+            return fallback.verify(token);
+        }
+
+        Scratch buffers = scratch.get();
+
+        byte[] signingInput = buffers.signingInput(payloadEnd);
+        for (int i = 0; i < payloadEnd; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return fallback.verify(token);
+            }
+            signingInput[i] = (byte) c;
+        }
+
+        if (decode(token, payloadEnd + 1, length, buffers.presented) != SIGNATURE_LENGTH) {
+            return fallback.verify(token);
+        }
+
+        buffers.mac.update(signingInput, 0, payloadEnd);
+        try {
+            buffers.mac.doFinal(buffers.computed, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!MessageDigest.isEqual(buffers.computed, buffers.presented)) {
+            return null;
+        }
+
+        byte[] payload = buffers.payload(payloadEnd - payloadStart);
+        int payloadLength = decode(token, payloadStart, payloadEnd, payload);
+        if (payloadLength < 0) {
+            return fallback.verify(token);
+        }
+
+        int subjectStart = expect(payload, 0, payloadLength, SUB_PREFIX);
+        if (subjectStart < 0 || subjectStart + UUID_LENGTH > payloadLength) {
+            return fallback.verify(token);
+        }
+        int iatStart = expect(payload, subjectStart + UUID_LENGTH, payloadLength, IAT_PREFIX);
+        int iatEnd = digitsEnd(payload, iatStart, payloadLength);
+        int expStart = expect(payload, iatEnd, payloadLength, EXP_PREFIX);
+        int expEnd = digitsEnd(payload, expStart, payloadLength);
+        int idStart = expect(payload, expEnd, payloadLength, JTI_PREFIX);
+        int claimsEnd = idStart < 0 ? expEnd : expect(payload, idStart + UUID_LENGTH, payloadLength, QUOTE);
+        if (claimsEnd < 0 || claimsEnd != payloadLength - 1 || payload[claimsEnd] != '}') {
+            return fallback.verify(token);
+        }
+
+        UUID subject = parseUuid(payload, subjectStart);
+        UUID tokenId = idStart < 0 ? null : parseUuid(payload, idStart);
+        if (subject == null || (idStart >= 0 && tokenId == null)) {
+            return fallback.verify(token);
+        }
+
+        return new JwtPrincipal(
+                subject,
+                Instant.ofEpochSecond(parseLong(payload, iatStart, iatEnd)),
+                Instant.ofEpochSecond(parseLong(payload, expStart, expEnd)),
+                tokenId);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(macKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Decodes canonical unpadded base64url, returning the decoded length or -1 when the
+     * input contains anything else.
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        if ((to - from) % 4 == 1 || (to - from) * 3 / 4 > target.length) {
+            return -1;
+        }
+
+        int written = 0;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[written++] = (byte) (buffer >> bits);
+                buffer &= (1 << bits) - 1;
+            }
+        }
+        return buffer == 0 ? written : -1;
+    }
+
+    private static int expect(byte[] source, int position, int limit, byte[] literal) {
+        if (position < 0 || position + literal.length > limit) {
+            return -1;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (source[position + i] != literal[i]) {
+                return -1;
+            }
+        }
+        return position + literal.length;
+    }
+
+    private static int digitsEnd(byte[] source, int position, int limit) {
+        if (position < 0) {
+            return -1;
+        }
+        int end = position;
+        while (end < limit && source[end] >= '0' && source[end] <= '9') {
+            end++;
+        }
+        int digits = end - position;
+        if (digits == 0 || digits > MAX_NUMBER_DIGITS || (digits > 1 && source[position] == '0')) {
+            return -1;
+        }
+        return end;
+    }
+
+    private static long parseLong(byte[] source, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (source[i] - '0');
+        }
+        return value;
+    }
+
+    private static UUID parseUuid(byte[] source, int position) {
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        int nibbles = 0;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            byte b = source[position + i];
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (b != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int value = Character.digit(b, 16);
+            if (value < 0) {
+                return null;
+            }
+            if (nibbles++ < 16) {
+                mostSignificant = (mostSignificant << 4) | value;
+            } else {
+                leastSignificant = (leastSignificant << 4) | value;
+            }
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static final class Scratch {
+
+        private final Mac mac;
+        private final byte[] computed = new byte[SIGNATURE_LENGTH];
+        private final byte[] presented = new byte[SIGNATURE_LENGTH];
+        private byte[] signingInput = new byte[256];
+        private byte[] payload = new byte[128];
+
+        private Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] signingInput(int size) {
+            if (signingInput.length < size) {
+                signingInput = new byte[size];
+            }
+            return signingInput;
+        }
+
+        private byte[] payload(int encodedSize) {
+            int size = encodedSize * 3 / 4 + 3;
+            if (payload.length < size) {
+                payload = new byte[size];
+            }
+            return payload;
+        }
+    }
+}
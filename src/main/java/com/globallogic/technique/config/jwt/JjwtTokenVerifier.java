@@ -0,0 +1,74 @@
+package com.globallogic.technique.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolver;
+import com.globallogic.technique.util.LogRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+@Slf4j
+public class JjwtTokenVerifier implements TokenVerifier {
+
+    private final JwtParser jwtParser;
+    private final LogRateLimiter invalidTokenLog = new LogRateLimiter(Duration.ofSeconds(1));
+
+    public JjwtTokenVerifier(SecretKey secretKey) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+    }
+
+    /**
+     * Verifies with the key named by each token's header, as issued by a {@link JwtKeyRing}.
+     */
+    public JjwtTokenVerifier(SigningKeyResolver signingKeyResolver) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(signingKeyResolver)
+                .build();
+    }
+
+    @Override
+    public JwtPrincipal verify(String token) {
+        try {
+            return toPrincipal(parseClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            if (log.isDebugEnabled() && invalidTokenLog.tryAcquire()) {
+                log.debug("Invalid token: {} ({} more suppressed)", e.getMessage(), invalidTokenLog.drainSuppressed());
+            }
+            return null;
+        }
+    }
+
+    private Claims parseClaims(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException e) {
+            // jjwt checks the signature before the expiry, so these claims are authentic.
+            return e.getClaims();
+        }
+    }
+
+    private static JwtPrincipal toPrincipal(Claims claims) {
+        if (claims.getSubject() == null) {
+            return null;
+        }
+        return new JwtPrincipal(
+                UUID.fromString(claims.getSubject()),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims.getId() != null ? UUID.fromString(claims.getId()) : null);
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
@@ -1,10 +1,10 @@
 package com.globallogic.technique.config.jwt;
 
 import com.globallogic.technique.config.exception.JwtAuthenticationEntryPoint;
-import com.globallogic.technique.exception.token.InvalidTokenException;
+import com.globallogic.technique.config.exception.JwtAuthenticationException;
 import com.globallogic.technique.service.TokenValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,10 +17,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenValidationService tokenValidationService;
     private final JwtAuthenticationEntryPoint entryPoint;
+    private final TokenVerificationTimers verificationTimers;
 
-    public JwtAuthenticationFilter(TokenValidationService tokenValidationService, JwtAuthenticationEntryPoint entryPoint) {
+    public JwtAuthenticationFilter(TokenValidationService tokenValidationService,
+                                   JwtAuthenticationEntryPoint entryPoint,
+                                   MeterRegistry meterRegistry) {
         this.tokenValidationService = tokenValidationService;
         this.entryPoint = entryPoint;
+        this.verificationTimers = new TokenVerificationTimers(meterRegistry);
     }
 
 
@@ -29,14 +33,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = getTokenFromRequest(request);
 
-            boolean isValid = tokenValidationService.validateJwtToken(token);
-
-            if (!isValid) {
-                throw new InvalidTokenException("Invalid or expired token");
+            long start = System.nanoTime();
+            TokenVerification verification = tokenValidationService.verifyJwtToken(token);
+            verificationTimers.record(verification.getOutcome(), start);
+            if (!verification.isValid()) {
+                entryPoint.commence(request, response, JwtAuthenticationException.INVALID_TOKEN);
+                return;
             }
+            JwtPrincipal principal = verification.getPrincipal();
 
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(null, null, Collections.emptyList());
+                    new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
 
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -44,14 +51,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
 
         } catch (RuntimeException ex) {
-            entryPoint.commence(request, response, new AuthenticationException(ex.getMessage()) {});
+            entryPoint.commence(request, response, new JwtAuthenticationException(ex.getMessage()));
         }
     }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
-        return !path.startsWith("/users/login");
+        return !path.startsWith("/users/login") && !path.startsWith("/users/logout");
     }
 
     private String getTokenFromRequest(HttpServletRequest request) {
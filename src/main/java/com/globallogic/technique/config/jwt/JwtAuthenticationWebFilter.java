@@ -0,0 +1,65 @@
+package com.globallogic.technique.config.jwt;
+
+import com.globallogic.technique.config.exception.JwtAuthenticationException;
+import com.globallogic.technique.service.TokenValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * Reactive counterpart of {@link JwtAuthenticationFilter}: verifies the bearer token of
+ * {@code /users/login} requests and exposes the principal through the reactor context.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final TokenValidationService tokenValidationService;
+    private final ServerAuthenticationEntryPoint entryPoint;
+    private final TokenVerificationTimers verificationTimers;
+
+    public JwtAuthenticationWebFilter(TokenValidationService tokenValidationService,
+                                      ServerAuthenticationEntryPoint entryPoint,
+                                      MeterRegistry meterRegistry) {
+        this.tokenValidationService = tokenValidationService;
+        this.entryPoint = entryPoint;
+        this.verificationTimers = new TokenVerificationTimers(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith("/users/login")) {
+            return chain.filter(exchange);
+        }
+
+        String token = getTokenFromRequest(exchange.getRequest());
+
+        long start = System.nanoTime();
+        TokenVerification verification = tokenValidationService.verifyJwtToken(token);
+        verificationTimers.record(verification.getOutcome(), start);
+        if (!verification.isValid()) {
+            return entryPoint.commence(exchange, JwtAuthenticationException.INVALID_TOKEN);
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(verification.getPrincipal(), null, Collections.emptyList());
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private String getTokenFromRequest(ServerHttpRequest request) {
+        String bearer = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (bearer != null && bearer.startsWith("Bearer ")) {
+            return bearer.substring(7);
+        }
+        return null;
+    }
+}
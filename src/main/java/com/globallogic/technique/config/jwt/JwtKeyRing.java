@@ -0,0 +1,403 @@
+package com.globallogic.technique.config.jwt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ring of ES256 signing keys for {@code jwt.signing-algorithm=es256}.
+ * <p>
+ * Tokens are signed with the active key and carry its {@code kid}. Keys that start
+ * signing later are published in the JWKS ahead of time, so resource servers that cache
+ * the JWKS already know a key when the first token signed with it arrives. A rotated-out
+ * key keeps verifying, and stays published, for the overlap window, which must cover the
+ * token lifetime.
+ * <p>
+ * The keys are read from the PKCS12 keystore at {@code jwt.keys.keystore}, which every
+ * instance shares, and reloaded every {@code jwt.keys.reload-interval-ms}. The start date
+ * of each key's certificate is when it starts signing, so all instances agree on the
+ * active key without talking to each other, and rotating means adding a key with a
+ * future start date and removing keys once their overlap window is over. Only with
+ * {@code jwt.keys.generate=true} are the keys generated in memory instead, and rotated
+ * every {@code jwt.keys.rotation-interval-ms}: each instance then has its own keys, lost
+ * on restart, which is only fit for development.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.signing-algorithm", havingValue = "es256")
+public class JwtKeyRing {
+
+    private static final String CURVE = "secp256r1";
+    private static final int COORDINATE_LENGTH = 32;
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final Duration overlap;
+    private final Resource keyStore;
+    private final char[] keyStorePassword;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SigningKeyResolver verificationKeyResolver = new KeyRingResolver();
+    private volatile State state;
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.keys.overlap-ms:${jwt.expiration}}") long overlapMs,
+                      @Value("${jwt.expiration}") long expirationTimeMs,
+                      @Value("${jwt.keys.keystore:}") Resource keyStore,
+                      @Value("${jwt.keys.keystore-password:}") String keyStorePassword,
+                      @Value("${jwt.keys.generate:false}") boolean generate) {
+        this(overlapMs, expirationTimeMs, requireKeyStore(keyStore, generate), keyStorePassword);
+    }
+
+    private JwtKeyRing(long overlapMs, long expirationTimeMs, Resource keyStore, String keyStorePassword) {
+        if (overlapMs < expirationTimeMs) {
+            throw new IllegalArgumentException("jwt.keys.overlap-ms (" + overlapMs
+                    + ") must be at least jwt.expiration (" + expirationTimeMs + ") or rotated-out tokens stop verifying");
+        }
+        this.overlap = Duration.ofMillis(overlapMs);
+        this.keyStore = keyStore;
+        this.keyStorePassword = keyStorePassword != null ? keyStorePassword.toCharArray() : new char[0];
+        this.state = keyStore != null
+                ? load(Instant.now())
+                : newState(generateKey(), List.of(generateKey()), Collections.emptyList());
+    }
+
+    /**
+     * A ring of the keys in the keystore, shared with every other instance that loads it.
+     */
+    public static JwtKeyRing fromKeyStore(long overlapMs, long expirationTimeMs, Resource keyStore, String password) {
+        return new JwtKeyRing(overlapMs, expirationTimeMs, keyStore, password);
+    }
+
+    /**
+     * A ring of keys generated in memory, which no other instance knows.
+     */
+    public static JwtKeyRing generated(long overlapMs, long expirationTimeMs) {
+        return new JwtKeyRing(overlapMs, expirationTimeMs, null, null);
+    }
+
+    public SigningKey activeKey() {
+        return state.active;
+    }
+
+    /**
+     * Resolves the verification key from the token's {@code kid}; unknown, expired or
+     * missing ids and any algorithm other than ES256 are rejected.
+     */
+    public SigningKeyResolver verificationKeyResolver() {
+        return verificationKeyResolver;
+    }
+
+    /**
+     * The public keys of the ring as a JWKS document, rendered once per rotation.
+     */
+    public Jwks jwks() {
+        return state.jwks;
+    }
+
+    /**
+     * Promotes the pre-published key to active, publishes a new next key and retires the
+     * previous active key until the overlap window ends. Only for generated keys: with a
+     * keystore the start dates of its keys decide the rotation, see {@link #reload}.
+     */
+    @Scheduled(initialDelayString = "${jwt.keys.rotation-interval-ms:86400000}",
+            fixedDelayString = "${jwt.keys.rotation-interval-ms:86400000}")
+    public synchronized void rotate() {
+        if (keyStore != null) {
+            return;
+        }
+        State current = state;
+        Instant now = Instant.now();
+
+        List<SigningKey> retired = new ArrayList<>();
+        retired.add(current.active.retire(now.plus(overlap)));
+        for (SigningKey key : current.retired) {
+            if (key.verifiesAt(now)) {
+                retired.add(key);
+            }
+        }
+
+        state = newState(current.upcoming.get(0), List.of(generateKey()), retired);
+        log.info("Rotated JWT signing key: active {}, next {}, {} retired",
+                state.active.getKid(), state.upcoming.get(0).getKid(), retired.size());
+    }
+
+    /**
+     * Reads the keystore again, so keys added to or removed from it are picked up and the
+     * key whose start date has come starts signing. A keystore that cannot be read keeps
+     * the keys loaded last.
+     */
+    @Scheduled(initialDelayString = "${jwt.keys.reload-interval-ms:60000}",
+            fixedDelayString = "${jwt.keys.reload-interval-ms:60000}")
+    public synchronized void reload() {
+        if (keyStore == null) {
+            return;
+        }
+        String previous = state.active.getKid();
+        try {
+            state = load(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the JWT keystore {}, keeping the current keys", keyStore, e);
+            return;
+        }
+        if (!previous.equals(state.active.getKid())) {
+            log.info("Rotated JWT signing key: active {}, {} upcoming, {} retired",
+                    state.active.getKid(), state.upcoming.size(), state.retired.size());
+        }
+    }
+
+    /**
+     * Orders the keys of the keystore by start date: the last one started is active, the
+     * ones before it verify until their successor started plus the overlap window, and
+     * the ones not started yet are published only.
+     */
+    private State load(Instant now) {
+        List<SigningKey> keys = new ArrayList<>();
+        List<Instant> startDates = new ArrayList<>();
+        for (Map.Entry<Instant, SigningKey> entry : readKeyStore().entrySet()) {
+            startDates.add(entry.getKey());
+            keys.add(entry.getValue());
+        }
+
+        int active = -1;
+        while (active + 1 < keys.size() && !startDates.get(active + 1).isAfter(now)) {
+            active++;
+        }
+        if (active < 0) {
+            throw new IllegalStateException("No ES256 key of the JWT keystore " + keyStore + " has started yet");
+        }
+
+        List<SigningKey> retired = new ArrayList<>();
+        for (int i = 0; i < active; i++) {
+            SigningKey key = keys.get(i).retire(startDates.get(i + 1).plus(overlap));
+            if (key.verifiesAt(now)) {
+                retired.add(key);
+            }
+        }
+        return newState(keys.get(active), keys.subList(active + 1, keys.size()), retired);
+    }
+
+    private Map<Instant, SigningKey> readKeyStore() {
+        try (InputStream input = keyStore.getInputStream()) {
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            store.load(input, keyStorePassword);
+            Map<Instant, SigningKey> byStartDate = new TreeMap<>();
+            for (String alias : Collections.list(store.aliases())) {
+                Key key = store.isKeyEntry(alias) ? store.getKey(alias, keyStorePassword) : null;
+                Certificate certificate = store.getCertificate(alias);
+                if (!(key instanceof PrivateKey) || !(certificate instanceof X509Certificate)
+                        || !isP256(certificate.getPublicKey())) {
+                    log.warn("Ignoring entry {} of the JWT keystore {}, it is not an ES256 key pair", alias, keyStore);
+                    continue;
+                }
+                Instant startDate = ((X509Certificate) certificate).getNotBefore().toInstant();
+                if (byStartDate.put(startDate, signingKey((PrivateKey) key, (ECPublicKey) certificate.getPublicKey())) != null) {
+                    throw new IllegalStateException("Two keys of the JWT keystore " + keyStore + " start at " + startDate);
+                }
+            }
+            return byStartDate;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the JWT keystore " + keyStore, e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load the JWT keystore " + keyStore, e);
+        }
+    }
+
+    private State newState(SigningKey active, List<SigningKey> upcoming, List<SigningKey> retired) {
+        Map<String, SigningKey> byKid = new LinkedHashMap<>();
+        byKid.put(active.getKid(), active);
+        for (SigningKey key : upcoming) {
+            byKid.put(key.getKid(), key);
+        }
+        for (SigningKey key : retired) {
+            byKid.put(key.getKid(), key);
+        }
+
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (SigningKey key : byKid.values()) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("kid", key.getKid());
+            jwk.put("use", "sig");
+            jwk.put("alg", SignatureAlgorithm.ES256.getValue());
+            jwk.put("x", key.x);
+            jwk.put("y", key.y);
+            keys.add(jwk);
+        }
+
+        try {
+            String json = objectMapper.writeValueAsString(Collections.singletonMap("keys", keys));
+            return new State(active, List.copyOf(upcoming), Collections.unmodifiableList(retired), byKid,
+                    new Jwks(json, "\"" + thumbprint(json) + "\""));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render the JWKS", e);
+        }
+    }
+
+    private static Resource requireKeyStore(Resource keyStore, boolean generate) {
+        if (keyStore == null && !generate) {
+            throw new IllegalStateException("jwt.signing-algorithm=es256 needs jwt.keys.keystore, shared by every instance;"
+                    + " set jwt.keys.generate=true to sign with per-instance keys in development");
+        }
+        if (keyStore == null) {
+            log.warn("Signing with ES256 keys generated by this instance: other instances reject its tokens"
+                    + " and they stop verifying on restart");
+        }
+        return keyStore;
+    }
+
+    private static SigningKey generateKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(CURVE));
+            KeyPair keyPair = generator.generateKeyPair();
+            return signingKey(keyPair.getPrivate(), (ECPublicKey) keyPair.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate an ES256 key", e);
+        }
+    }
+
+    private static SigningKey signingKey(PrivateKey privateKey, ECPublicKey publicKey) {
+        String x = coordinate(publicKey.getW().getAffineX());
+        String y = coordinate(publicKey.getW().getAffineY());
+        // RFC 7638 thumbprint: required members in lexicographic order, no whitespace.
+        String kid = thumbprint("{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + x + "\",\"y\":\"" + y + "\"}");
+        return new SigningKey(kid, privateKey, publicKey, x, y, null);
+    }
+
+    private static boolean isP256(PublicKey publicKey) {
+        return publicKey instanceof ECPublicKey
+                && ((ECPublicKey) publicKey).getParams().getCurve().getField().getFieldSize() == 8 * COORDINATE_LENGTH;
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+        return BASE64URL.encodeToString(fixed);
+    }
+
+    private static String thumbprint(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return BASE64URL.encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Getter
+    public static final class SigningKey {
+
+        private final String kid;
+        private final PrivateKey privateKey;
+        private final ECPublicKey publicKey;
+        private final String x;
+        private final String y;
+        /** End of the overlap window of a rotated-out key, {@code null} while still in rotation. */
+        private final Instant verifiesUntil;
+
+        private SigningKey(String kid, PrivateKey privateKey, ECPublicKey publicKey, String x, String y, Instant verifiesUntil) {
+            this.kid = kid;
+            this.privateKey = privateKey;
+            this.publicKey = publicKey;
+            this.x = x;
+            this.y = y;
+            this.verifiesUntil = verifiesUntil;
+        }
+
+        private SigningKey retire(Instant until) {
+            return new SigningKey(kid, privateKey, publicKey, x, y, until);
+        }
+
+        private boolean verifiesAt(Instant instant) {
+            return verifiesUntil == null || instant.isBefore(verifiesUntil);
+        }
+    }
+
+    @Getter
+    public static final class Jwks {
+
+        private final String json;
+        private final String etag;
+
+        private Jwks(String json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+    }
+
+    private static final class State {
+
+        private final SigningKey active;
+        /** Published keys that have not started signing yet, in start order. */
+        private final List<SigningKey> upcoming;
+        private final List<SigningKey> retired;
+        private final Map<String, SigningKey> byKid;
+        private final Jwks jwks;
+
+        private State(SigningKey active, List<SigningKey> upcoming, List<SigningKey> retired,
+                      Map<String, SigningKey> byKid, Jwks jwks) {
+            this.active = active;
+            this.upcoming = upcoming;
+            this.retired = retired;
+            this.byKid = byKid;
+            this.jwks = jwks;
+        }
+    }
+
+    private final class KeyRingResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (!SignatureAlgorithm.ES256.getValue().equals(header.getAlgorithm())) {
+                throw new SignatureException("Unexpected token algorithm " + header.getAlgorithm());
+            }
+            SigningKey key = header.getKeyId() != null ? state.byKid.get(header.getKeyId()) : null;
+            if (key == null || !key.verifiesAt(Instant.now())) {
+                throw new SignatureException("Unknown or expired signing key " + header.getKeyId());
+            }
+            return key.getPublicKey();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.globallogic.technique.config.jwt;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims of an already verified access token. Stored as the {@code Authentication}
+ * principal by {@link JwtAuthenticationFilter} so downstream code never parses the token again.
+ */
+@Value
+public class JwtPrincipal {
+
+    UUID userId;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    /**
+     * The {@code jti} claim, which logout revokes; null for a token issued without one.
+     */
+    UUID tokenId;
+}
@@ -0,0 +1,13 @@
+package com.globallogic.technique.config.jwt;
+
+/**
+ * How access tokens are signed, selected with {@code jwt.signing-algorithm}.
+ */
+public enum JwtSigningAlgorithm {
+
+    /** Shared {@code jwt.secret}; only this service can verify the tokens. */
+    HS256,
+
+    /** Rotating ES256 keys from the {@link JwtKeyRing}, published as a JWKS for offline verification. */
+    ES256
+}
@@ -0,0 +1,13 @@
+package com.globallogic.technique.config.jwt;
+
+/**
+ * Implementation used to verify access tokens, selected with {@code jwt.verifier}.
+ */
+public enum JwtVerifierMode {
+
+    /** General purpose jjwt parser. */
+    JJWT,
+
+    /** Specialised verifier for the tokens this service issues, falling back to jjwt for any other shape. */
+    HS256
+}
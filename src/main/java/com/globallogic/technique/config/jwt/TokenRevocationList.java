@@ -0,0 +1,150 @@
+package com.globallogic.technique.config.jwt;
+
+import com.globallogic.technique.util.Murmur3;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.globallogic.technique.util.Murmur3.mix;
+
+/**
+ * In-memory list of access tokens revoked before their {@code exp}, by {@code jti}. Other
+ * tokens of the same user are not affected, and a token without a {@code jti} is never
+ * revoked.
+ * <p>
+ * Lookups first go through a bloom filter over the token id, so the common case of a token
+ * that was never revoked costs a few array reads and no allocation; only a filter hit
+ * consults the exact set. Both are immutable snapshots swapped on every change, which is
+ * cheap because revocations are rare compared to verifications.
+ */
+@Component
+public class TokenRevocationList {
+
+    public static final int DEFAULT_EXPECTED_REVOCATIONS = 10_000;
+
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final int expectedRevocations;
+    private volatile Snapshot snapshot;
+
+    public TokenRevocationList(@Value("${jwt.revocation.expected-entries:" + DEFAULT_EXPECTED_REVOCATIONS + "}") int expectedRevocations) {
+        this.expectedRevocations = expectedRevocations;
+        this.snapshot = Snapshot.of(Collections.emptyMap(), expectedRevocations);
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        Snapshot current = snapshot;
+        UUID tokenId = principal.getTokenId();
+        return tokenId != null
+                && current.mightContain(tokenId)
+                && current.revocations.containsKey(tokenId);
+    }
+
+    public void revoke(Revocation revocation) {
+        revokeAll(Collections.singletonList(revocation));
+    }
+
+    /**
+     * Adds the revocations not in the list yet. The snapshot is only rebuilt when something
+     * changed, so reloading known revocations is cheap.
+     */
+    public synchronized void revokeAll(Collection<Revocation> revocations) {
+        Map<UUID, Revocation> merged = null;
+        for (Revocation revocation : revocations) {
+            if ((merged != null ? merged : snapshot.revocations).containsKey(revocation.getTokenId())) {
+                continue;
+            }
+            if (merged == null) {
+                merged = new HashMap<>(snapshot.revocations);
+            }
+            merged.put(revocation.getTokenId(), revocation);
+        }
+        if (merged != null) {
+            snapshot = Snapshot.of(merged, expectedRevocations);
+        }
+    }
+
+    /**
+     * Drops the revocations whose tokens have all expired and rebuilds the filter, which
+     * cannot forget entries on its own.
+     */
+    public synchronized void purgeExpired(Instant now) {
+        Map<UUID, Revocation> remaining = new HashMap<>();
+        for (Revocation revocation : snapshot.revocations.values()) {
+            if (revocation.getExpiresAt().isAfter(now)) {
+                remaining.put(revocation.getTokenId(), revocation);
+            }
+        }
+        if (remaining.size() != snapshot.revocations.size()) {
+            snapshot = Snapshot.of(remaining, expectedRevocations);
+        }
+    }
+
+    public int size() {
+        return snapshot.revocations.size();
+    }
+
+    /**
+     * The token {@code tokenId} is rejected until {@code expiresAt}, its own {@code exp}.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Revocation {
+
+        private final UUID tokenId;
+        private final Instant expiresAt;
+    }
+
+    private static final class Snapshot {
+
+        private final Map<UUID, Revocation> revocations;
+        private final long[] bits;
+        private final long mask;
+
+        private Snapshot(Map<UUID, Revocation> revocations, long[] bits) {
+            this.revocations = revocations;
+            this.bits = bits;
+            this.mask = (long) bits.length * Long.SIZE - 1;
+        }
+
+        private static Snapshot of(Map<UUID, Revocation> revocations, int expectedRevocations) {
+            long capacity = Math.max(expectedRevocations, 2L * revocations.size());
+            long bitCount = Long.highestOneBit(Math.max(Long.SIZE, capacity * BITS_PER_ENTRY - 1)) << 1;
+            Snapshot snapshot = new Snapshot(Collections.unmodifiableMap(revocations), new long[(int) (bitCount / Long.SIZE)]);
+            for (UUID tokenId : revocations.keySet()) {
+                snapshot.add(tokenId);
+            }
+            return snapshot;
+        }
+
+        private void add(UUID tokenId) {
+            long first = Murmur3.hash(tokenId);
+            long second = mix(first) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = (first + i * second) & mask;
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        private boolean mightContain(UUID tokenId) {
+            long first = Murmur3.hash(tokenId);
+            long second = mix(first) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = (first + i * second) & mask;
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.globallogic.technique.config.jwt;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of checking an access token, with its claims when it is valid. Only valid
+ * results allocate; the rejection outcomes are shared constants.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TokenVerification {
+
+    public enum Outcome {
+        VALID, MISSING, INVALID, EXPIRED, REVOKED
+    }
+
+    public static final TokenVerification MISSING = new TokenVerification(Outcome.MISSING, null);
+    public static final TokenVerification INVALID = new TokenVerification(Outcome.INVALID, null);
+    public static final TokenVerification EXPIRED = new TokenVerification(Outcome.EXPIRED, null);
+    public static final TokenVerification REVOKED = new TokenVerification(Outcome.REVOKED, null);
+
+    private final Outcome outcome;
+    private final JwtPrincipal principal;
+
+    public static TokenVerification valid(JwtPrincipal principal) {
+        return new TokenVerification(Outcome.VALID, principal);
+    }
+
+    public boolean isValid() {
+        return outcome == Outcome.VALID;
+    }
+}
@@ -0,0 +1,31 @@
+package com.globallogic.technique.config.jwt;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code auth.token.verification} timer per outcome, shared by the servlet and the
+ * reactive authentication filters.
+ */
+final class TokenVerificationTimers {
+
+    private final Map<TokenVerification.Outcome, Timer> timers = new EnumMap<>(TokenVerification.Outcome.class);
+
+    TokenVerificationTimers(MeterRegistry meterRegistry) {
+        for (TokenVerification.Outcome outcome : TokenVerification.Outcome.values()) {
+            timers.put(outcome, Timer.builder("auth.token.verification")
+                    .description("Access token verification in the authentication filter")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    void record(TokenVerification.Outcome outcome, long startNanos) {
+        timers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,13 @@
+package com.globallogic.technique.config.jwt;
+
+/**
+ * Verifies the signature and shape of an access token issued by this service. Expiry is
+ * left to the caller so an expired token can be told apart from a forged one.
+ */
+public interface TokenVerifier {
+
+    /**
+     * @return the verified claims, even when already expired, or {@code null} when the token is invalid
+     */
+    JwtPrincipal verify(String token);
+}
@@ -0,0 +1,105 @@
+package com.globallogic.technique.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globallogic.technique.config.AsyncWebConfig;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.dto.request.TokenRefreshRequestDto;
+import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.BatchSignUpResultDto;
+import com.globallogic.technique.dto.response.TokenRefreshResponseDto;
+import com.globallogic.technique.dto.response.UserResponseDto;
+import com.globallogic.technique.dto.response.UserSigUpResponseDto;
+import com.globallogic.technique.service.TokenRevocationService;
+import com.globallogic.technique.service.UserService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Same endpoints as {@link UserController}, served with {@code web.execution-mode=async}:
+ * the request is parsed on the connector thread and the service call runs on the user
+ * request pool. A batch, JSON array or newline delimited, is read on the pool, chunk by
+ * chunk, while it is signed up.
+ * <p>
+ * A batch hashes up to {@code users.batch.max-items} passwords, far longer than
+ * {@code spring.mvc.async.request-timeout} allows a single call, so the batch endpoints
+ * run with their own {@code web.async.batch-timeout-ms}. A request that times out
+ * anyway is answered 503 and its task interrupted.
+ */
+@RestController
+@RequestMapping("/users")
+@ConditionalOnProperty(name = "web.execution-mode", havingValue = "async")
+@Profile(ReactiveStack.NOT_PROFILE)
+public class AsyncUserController {
+
+    private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ObjectMapper objectMapper;
+    private final Executor userRequestExecutor;
+    private final AsyncTaskExecutor batchTaskExecutor;
+    private final long batchTimeoutMs;
+
+    public AsyncUserController(UserService userService,
+                               TokenRevocationService tokenRevocationService,
+                               ObjectMapper objectMapper,
+                               @Qualifier(AsyncWebConfig.USER_REQUEST_EXECUTOR) Executor userRequestExecutor,
+                               @Value("${web.async.batch-timeout-ms:600000}") long batchTimeoutMs) {
+        this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.objectMapper = objectMapper;
+        this.userRequestExecutor = userRequestExecutor;
+        this.batchTaskExecutor = new TaskExecutorAdapter(userRequestExecutor);
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    @PostMapping("/sign-up")
+    public CompletableFuture<UserSigUpResponseDto> signUp(@RequestBody UserDTO userRequest) {
+        return CompletableFuture.supplyAsync(() -> userService.signUp(userRequest), userRequestExecutor);
+    }
+
+    @PostMapping(value = "/sign-up/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public WebAsyncTask<List<BatchSignUpResultDto>> signUpBatch(HttpServletRequest request) throws IOException {
+        MappingIterator<UserDTO> userRequests = objectMapper.readerFor(UserDTO.class)
+                .readValues(request.getInputStream());
+        return new WebAsyncTask<>(batchTimeoutMs, batchTaskExecutor, () -> userService.signUpBatchStream(userRequests));
+    }
+
+    @GetMapping("/login")
+    public CompletableFuture<UserResponseDto> getUser(@AuthenticationPrincipal JwtPrincipal principal) {
+        return CompletableFuture.supplyAsync(() -> userService.login(principal), userRequestExecutor);
+    }
+
+    @PostMapping("/token/refresh")
+    public CompletableFuture<TokenRefreshResponseDto> refreshToken(@RequestBody TokenRefreshRequestDto request) {
+        return CompletableFuture.supplyAsync(() -> userService.refreshToken(request), userRequestExecutor);
+    }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> logout(@AuthenticationPrincipal JwtPrincipal principal,
+                                          @RequestBody(required = false) TokenRefreshRequestDto request) {
+        String refreshToken = request != null ? request.getRefreshToken() : null;
+        return CompletableFuture.runAsync(() -> tokenRevocationService.logout(principal, refreshToken), userRequestExecutor);
+    }
+}
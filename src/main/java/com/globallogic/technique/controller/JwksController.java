@@ -0,0 +1,52 @@
+package com.globallogic.technique.controller;
+
+import com.globallogic.technique.config.jwt.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the public keys of the {@link JwtKeyRing} so other services verify our tokens
+ * offline. The document is pre-rendered on rotation; clients revalidate with its ETag.
+ * Keep {@code jwt.jwks.max-age-seconds} below the rotation interval so caches always see
+ * the next key before it starts signing.
+ */
+@RestController
+@ConditionalOnProperty(name = "jwt.signing-algorithm", havingValue = "es256")
+public class JwksController {
+
+    public static final String JWKS_PATH = "/.well-known/jwks.json";
+
+    private final JwtKeyRing keyRing;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyRing keyRing,
+                          @Value("${jwt.jwks.max-age-seconds:300}") long maxAgeSeconds) {
+        this.keyRing = keyRing;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    @GetMapping(value = JWKS_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        JwtKeyRing.Jwks jwks = keyRing.jwks();
+        if (jwks.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(jwks.getEtag())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(jwks.getEtag())
+                .body(jwks.getJson());
+    }
+}
@@ -0,0 +1,42 @@
+package com.globallogic.technique.controller;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.UserResponseDto;
+import com.globallogic.technique.dto.response.UserSigUpResponseDto;
+import com.globallogic.technique.service.ReactiveUserService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@code /users/sign-up} and {@code /users/login} contract of {@link UserController},
+ * served by WebFlux under the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/users")
+@Profile(ReactiveStack.PROFILE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("/sign-up")
+    public Mono<UserSigUpResponseDto> signUp(@RequestBody UserDTO userRequest) {
+        return userService.signUp(userRequest);
+    }
+
+    @GetMapping("/login")
+    public Mono<UserResponseDto> getUser(@AuthenticationPrincipal JwtPrincipal principal) {
+        return userService.login(principal);
+    }
+}
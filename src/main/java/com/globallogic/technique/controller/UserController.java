@@ -1,24 +1,40 @@
 package com.globallogic.technique.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.dto.request.TokenRefreshRequestDto;
 import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.BatchSignUpResultDto;
+import com.globallogic.technique.dto.response.TokenRefreshResponseDto;
 import com.globallogic.technique.dto.response.UserResponseDto;
 import com.globallogic.technique.dto.response.UserSigUpResponseDto;
+import com.globallogic.technique.service.TokenRevocationService;
 import com.globallogic.technique.service.TokenValidationService;
 import com.globallogic.technique.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.validation.Valid;
-import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
 
 
 @RestController
 @RequestMapping("/users")
+@ConditionalOnProperty(name = "web.execution-mode", havingValue = "blocking", matchIfMissing = true)
+@Profile(ReactiveStack.NOT_PROFILE)
 public class UserController {
 
     @Autowired
@@ -27,13 +43,39 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/sign-up")
-    public UserSigUpResponseDto signUp(@Valid @RequestBody UserDTO userRequest) {
+    public UserSigUpResponseDto signUp(@RequestBody UserDTO userRequest) {
         return userService.signUp(userRequest);
     }
 
+    @PostMapping(value = "/sign-up/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<BatchSignUpResultDto> signUpBatch(HttpServletRequest request) throws IOException {
+        // A root JSON array is iterated element by element, like the lines of an NDJSON body
+        MappingIterator<UserDTO> userRequests = objectMapper.readerFor(UserDTO.class)
+                .readValues(request.getInputStream());
+        return userService.signUpBatchStream(userRequests);
+    }
+
     @GetMapping("/login")
-    public UserResponseDto getUser(@RequestHeader("Authorization") String token) {
-        return userService.login(token);
+    public UserResponseDto getUser(@AuthenticationPrincipal JwtPrincipal principal) {
+        return userService.login(principal);
+    }
+
+    @PostMapping("/token/refresh")
+    public TokenRefreshResponseDto refreshToken(@RequestBody TokenRefreshRequestDto request) {
+        return userService.refreshToken(request);
+    }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@AuthenticationPrincipal JwtPrincipal principal,
+                       @RequestBody(required = false) TokenRefreshRequestDto request) {
+        tokenRevocationService.logout(principal, request != null ? request.getRefreshToken() : null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.globallogic.technique.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRefreshRequestDto {
+
+    private String refreshToken;
+
+}
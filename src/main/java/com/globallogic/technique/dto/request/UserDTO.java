@@ -6,7 +6,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import javax.validation.constraints.NotBlank;
 import java.util.List;
 
 
@@ -18,9 +17,7 @@ import java.util.List;
 public class UserDTO {
 
     private String name;
-    @NotBlank(message = "email cannot be empty")
     private String email;
-    @NotBlank(message = "password cannot be empty")
     private String password;
     private List<PhoneDto> phones;
 
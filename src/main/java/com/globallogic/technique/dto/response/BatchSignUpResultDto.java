@@ -0,0 +1,20 @@
+package com.globallogic.technique.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchSignUpResultDto {
+    private int index;
+    private int code;
+    private String email;
+    private UserSigUpResponseDto user;
+    private String detail;
+}
@@ -0,0 +1,15 @@
+package com.globallogic.technique.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenRefreshResponseDto {
+    private String token;
+    private String refreshToken;
+}
@@ -1,5 +1,6 @@
 package com.globallogic.technique.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,5 +18,7 @@ public class UserSigUpResponseDto {
     private LocalDateTime created;
     private LocalDateTime lastLogin;
     private String token;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String refreshToken;
     private Boolean isActive;
 }
\ No newline at end of file
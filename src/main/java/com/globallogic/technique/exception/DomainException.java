@@ -0,0 +1,14 @@
+package com.globallogic.technique.exception;
+
+/**
+ * Base of the exceptions that reject a request. They are expected control flow rather
+ * than bugs, so they carry no stack trace and no suppressed exceptions: creating one
+ * costs an allocation, and an instance with a fixed message can be preallocated and
+ * thrown from many threads.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
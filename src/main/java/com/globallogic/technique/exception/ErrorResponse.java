@@ -0,0 +1,66 @@
+package com.globallogic.technique.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code {"error":[{"timestamp":..,"code":..,"detail":..}]}} body shared by every
+ * error response. Everything but the timestamp is rendered to JSON bytes once, when the
+ * instance is created, so answering with a constant instance only copies bytes.
+ */
+public final class ErrorResponse {
+
+    private static final byte[] PREFIX = "{\"error\":[{\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final HttpStatus status;
+    private final String detail;
+    private final byte[] suffix;
+
+    private ErrorResponse(HttpStatus status, String detail, byte[] suffix) {
+        this.status = status;
+        this.detail = detail;
+        this.suffix = suffix;
+    }
+
+    public static ErrorResponse of(HttpStatus status, String detail) {
+        String quotedDetail = detail == null
+                ? "null"
+                : "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(detail)) + "\"";
+        String suffix = "\",\"code\":" + status.value() + ",\"detail\":" + quotedDetail + "}]}";
+        return new ErrorResponse(status, detail, suffix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This instance when it carries {@code detail}, otherwise a new one rendered for it.
+     */
+    public ErrorResponse withDetail(String detail) {
+        return Objects.equals(this.detail, detail) ? this : of(status, detail);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public byte[] render() {
+        String timestamp = Instant.now().toString();
+        byte[] body = Arrays.copyOf(PREFIX, PREFIX.length + timestamp.length() + suffix.length);
+        for (int i = 0; i < timestamp.length(); i++) {
+            body[PREFIX.length + i] = (byte) timestamp.charAt(i);
+        }
+        System.arraycopy(suffix, 0, body, PREFIX.length + timestamp.length(), suffix.length);
+        return body;
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(render());
+    }
+}
@@ -2,69 +2,102 @@ package com.globallogic.technique.exception;
 
 
 
+import com.globallogic.technique.exception.token.InvalidRefreshTokenException;
 import com.globallogic.technique.exception.user.InvalidEmailFormatException;
 import com.globallogic.technique.exception.user.InvalidPasswordFormatException;
+import com.globallogic.technique.exception.user.MissingRequiredFieldException;
+import com.globallogic.technique.exception.user.SignUpCapacityExceededException;
 import com.globallogic.technique.exception.user.UserAlreadyExistsException;
 import com.globallogic.technique.exception.user.UserNotFoundException;
-import org.springframework.context.support.DefaultMessageSourceResolvable;
+import com.globallogic.technique.service.PasswordHashingService;
+import com.globallogic.technique.service.RefreshTokenService;
+import com.globallogic.technique.service.UserService;
+import com.globallogic.technique.util.LogRateLimiter;
+import com.globallogic.technique.util.UserRequestValidator;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
-import java.time.Instant;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Maps exceptions to the JSON error body. The bodies of the fixed messages the services
+ * throw are pre-rendered; any other message is rendered on demand.
+ */
+@Slf4j
 @ControllerAdvice
 public class ManagementException {
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationException(MethodArgumentNotValidException ex) {
-        String message = ex.getBindingResult().getFieldErrors().stream()
-                .findFirst()
-                .map(DefaultMessageSourceResolvable::getDefaultMessage)
-                .orElse("Invalid validation");
+    private static final ErrorResponse EMAIL_REQUIRED = ErrorResponse.of(HttpStatus.BAD_REQUEST, UserRequestValidator.EMAIL_REQUIRED_MESSAGE);
+    private static final ErrorResponse PASSWORD_REQUIRED = ErrorResponse.of(HttpStatus.BAD_REQUEST, UserRequestValidator.PASSWORD_REQUIRED_MESSAGE);
+    private static final ErrorResponse PASSWORD_FORMAT = ErrorResponse.of(HttpStatus.BAD_REQUEST, UserRequestValidator.PASSWORD_FORMAT_MESSAGE);
+    private static final ErrorResponse USER_ALREADY_EXISTS = ErrorResponse.of(HttpStatus.CONFLICT, UserService.USER_ALREADY_EXISTS_MESSAGE);
+    private static final ErrorResponse USER_NOT_FOUND = ErrorResponse.of(HttpStatus.NOT_FOUND, UserService.USER_NOT_FOUND_MESSAGE);
+    private static final ErrorResponse INVALID_REFRESH_TOKEN = ErrorResponse.of(HttpStatus.UNAUTHORIZED, RefreshTokenService.INVALID_REFRESH_TOKEN_MESSAGE);
+    private static final ErrorResponse SIGN_UP_CAPACITY_EXCEEDED = ErrorResponse.of(HttpStatus.SERVICE_UNAVAILABLE, PasswordHashingService.CAPACITY_EXCEEDED_MESSAGE);
+    private static final ErrorResponse REQUEST_CAPACITY_EXCEEDED = ErrorResponse.of(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests, try again later");
+    private static final ErrorResponse REQUEST_TIMED_OUT = ErrorResponse.of(HttpStatus.SERVICE_UNAVAILABLE, "The request timed out, try again later");
+    private static final ErrorResponse INTERNAL_SERVER_ERROR = ErrorResponse.of(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
 
-        return buildErrorResponse(HttpStatus.BAD_REQUEST, message);
+    private final LogRateLimiter unexpectedErrorLog = new LogRateLimiter(Duration.ofSeconds(1));
+
+    @ExceptionHandler(MissingRequiredFieldException.class)
+    public ResponseEntity<byte[]> handleMissingRequiredField(MissingRequiredFieldException ex) {
+        ErrorResponse response = UserRequestValidator.PASSWORD_REQUIRED_MESSAGE.equals(ex.getMessage())
+                ? PASSWORD_REQUIRED
+                : EMAIL_REQUIRED.withDetail(ex.getMessage());
+        return response.toResponseEntity();
     }
 
     @ExceptionHandler(InvalidPasswordFormatException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidPasswordFormat(InvalidPasswordFormatException ex) {
-        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    public ResponseEntity<byte[]> handleInvalidPasswordFormat(InvalidPasswordFormatException ex) {
+        return PASSWORD_FORMAT.withDetail(ex.getMessage()).toResponseEntity();
     }
 
     @ExceptionHandler(InvalidEmailFormatException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidEmailFormat(InvalidEmailFormatException ex) {
-        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    public ResponseEntity<byte[]> handleInvalidEmailFormat(InvalidEmailFormatException ex) {
+        return ErrorResponse.of(HttpStatus.BAD_REQUEST, ex.getMessage()).toResponseEntity();
     }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
-    public ResponseEntity<Map<String, Object>> userAlreadyExists(UserAlreadyExistsException ex) {
-        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    public ResponseEntity<byte[]> userAlreadyExists(UserAlreadyExistsException ex) {
+        return USER_ALREADY_EXISTS.withDetail(ex.getMessage()).toResponseEntity();
     }
 
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> userNotFound(UserNotFoundException ex) {
-        return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+    public ResponseEntity<byte[]> userNotFound(UserNotFoundException ex) {
+        return USER_NOT_FOUND.withDetail(ex.getMessage()).toResponseEntity();
     }
 
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> exceptionGeneric(Exception ex) {
-        return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<byte[]> invalidRefreshToken(InvalidRefreshTokenException ex) {
+        return INVALID_REFRESH_TOKEN.withDetail(ex.getMessage()).toResponseEntity();
     }
 
-    private ResponseEntity<Map<String, Object>> buildErrorResponse(HttpStatus status, String message) {
-        Map<String, Object> errorDetail = new LinkedHashMap<>();
-        errorDetail.put("timestamp", Instant.now().toString());
-        errorDetail.put("code", status.value());
-        errorDetail.put("detail", message);
+    @ExceptionHandler(SignUpCapacityExceededException.class)
+    public ResponseEntity<byte[]> signUpCapacityExceeded(SignUpCapacityExceededException ex) {
+        return SIGN_UP_CAPACITY_EXCEEDED.withDetail(ex.getMessage()).toResponseEntity();
+    }
 
-        Map<String, Object> error = new LinkedHashMap<>();
-        error.put("error", List.of(errorDetail));
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<byte[]> requestCapacityExceeded(RejectedExecutionException ex) {
+        return REQUEST_CAPACITY_EXCEEDED.toResponseEntity();
+    }
 
-        return new ResponseEntity<>(error, status);
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<byte[]> requestTimedOut(AsyncRequestTimeoutException ex) {
+        return REQUEST_TIMED_OUT.toResponseEntity();
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<byte[]> exceptionGeneric(Exception ex) {
+        if (unexpectedErrorLog.tryAcquire()) {
+            log.error("Unexpected error handling request ({} more suppressed)", unexpectedErrorLog.drainSuppressed(), ex);
+        }
+        return INTERNAL_SERVER_ERROR.toResponseEntity();
     }
-}
\ No newline at end of file
+}
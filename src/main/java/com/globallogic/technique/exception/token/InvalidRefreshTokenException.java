@@ -0,0 +1,9 @@
+package com.globallogic.technique.exception.token;
+
+import com.globallogic.technique.exception.DomainException;
+
+public class InvalidRefreshTokenException extends DomainException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
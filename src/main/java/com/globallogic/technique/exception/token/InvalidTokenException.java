@@ -1,7 +0,0 @@
-package com.globallogic.technique.exception.token;
-
-public class InvalidTokenException extends RuntimeException {
-    public InvalidTokenException(String message) {
-        super(message);
-    }
-}
\ No newline at end of file
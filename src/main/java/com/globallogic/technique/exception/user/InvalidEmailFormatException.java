@@ -1,6 +1,8 @@
 package com.globallogic.technique.exception.user;
 
-public class InvalidEmailFormatException extends RuntimeException {
+import com.globallogic.technique.exception.DomainException;
+
+public class InvalidEmailFormatException extends DomainException {
     public InvalidEmailFormatException(String message) {
         super(message);
     }
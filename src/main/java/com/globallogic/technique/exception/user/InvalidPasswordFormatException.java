@@ -1,6 +1,8 @@
 package com.globallogic.technique.exception.user;
 
-public class InvalidPasswordFormatException extends RuntimeException {
+import com.globallogic.technique.exception.DomainException;
+
+public class InvalidPasswordFormatException extends DomainException {
     public InvalidPasswordFormatException(String message) {
         super(message);
     }
@@ -0,0 +1,9 @@
+package com.globallogic.technique.exception.user;
+
+import com.globallogic.technique.exception.DomainException;
+
+public class MissingRequiredFieldException extends DomainException {
+    public MissingRequiredFieldException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.globallogic.technique.exception.user;
+
+import com.globallogic.technique.exception.DomainException;
+
+public class SignUpCapacityExceededException extends DomainException {
+    public SignUpCapacityExceededException(String message) {
+        super(message);
+    }
+}
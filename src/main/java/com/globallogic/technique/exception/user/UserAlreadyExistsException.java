@@ -1,6 +1,8 @@
 package com.globallogic.technique.exception.user;
 
-public class UserAlreadyExistsException extends RuntimeException {
+import com.globallogic.technique.exception.DomainException;
+
+public class UserAlreadyExistsException extends DomainException {
     public UserAlreadyExistsException(String message) {
         super(message);
     }
@@ -1,6 +1,8 @@
 package com.globallogic.technique.exception.user;
 
-public class UserNotFoundException extends RuntimeException {
+import com.globallogic.technique.exception.DomainException;
+
+public class UserNotFoundException extends DomainException {
     public UserNotFoundException(String message) {
         super(message);
     }
@@ -0,0 +1,61 @@
+package com.globallogic.technique.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A single-use refresh token. Only the SHA-256 digest of the opaque token is stored,
+ * base64url encoded, next to the user it was issued to and its expiry.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken implements Persistable<String> {
+
+    public static final int HASH_LENGTH = 43;
+
+    @Id
+    @Column(length = HASH_LENGTH, updatable = false, nullable = false)
+    private String tokenHash;
+
+    @Column(columnDefinition = User.ID_COLUMN_DEFINITION, updatable = false, nullable = false)
+    private UUID userId;
+
+    @Column(updatable = false, nullable = false)
+    private Instant expiresAt;
+
+    // The id is assigned by the service, so tell Spring Data to persist instead of merging.
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
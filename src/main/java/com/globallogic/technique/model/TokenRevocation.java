@@ -0,0 +1,34 @@
+package com.globallogic.technique.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Revocation of a single access token, by its {@code jti}. The row is only needed until
+ * {@code expiresAt}, the token's own expiry.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @Column(columnDefinition = User.ID_COLUMN_DEFINITION, updatable = false, nullable = false)
+    private UUID tokenId;
+
+    @Column(columnDefinition = User.ID_COLUMN_DEFINITION, nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -6,11 +6,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.GenericGenerator;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -20,15 +24,22 @@ import java.util.UUID;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"))
 public class User {
 
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_user_email";
+
+    /**
+     * Ids are stored as their 16 bytes, big-endian, so time-ordered ids are also ordered
+     * in the index. Set as a column definition because the H2 dialect ignores the length
+     * of binary columns.
+     */
+    public static final String ID_COLUMN_DEFINITION = "binary(16)";
+
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
-    )
-    @Column(updatable = false, nullable = false)
+    @GeneratedValue(generator = UuidV7Generator.NAME)
+    @GenericGenerator(name = UuidV7Generator.NAME, strategy = "com.globallogic.technique.model.UuidV7Generator")
+    @Column(columnDefinition = ID_COLUMN_DEFINITION, updatable = false, nullable = false)
     private UUID id;
     private String name;
     private String email;
@@ -38,6 +49,7 @@ public class User {
     private LocalDateTime created;
 
     @ElementCollection
+    @CollectionTable(joinColumns = @JoinColumn(name = "user_id", columnDefinition = ID_COLUMN_DEFINITION))
     private List<Phone> phones;
 
 }
\ No newline at end of file
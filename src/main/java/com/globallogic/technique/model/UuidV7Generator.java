@@ -0,0 +1,21 @@
+package com.globallogic.technique.model;
+
+import com.globallogic.technique.util.UuidV7;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+
+/**
+ * Assigns {@link UuidV7} ids when an entity is persisted. The id is generated in the
+ * application, so inserts still go out in JDBC batches.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+    public static final String NAME = "uuid-v7";
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return UuidV7.next();
+    }
+}
@@ -0,0 +1,42 @@
+package com.globallogic.technique.repository;
+
+import com.globallogic.technique.config.ReactiveStack;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes all buffered login timestamps as a single JDBC batch.
+ */
+@Repository
+@Profile(ReactiveStack.NOT_PROFILE)
+@ConditionalOnProperty(name = "users.store", havingValue = "jpa", matchIfMissing = true)
+public class JdbcLastLoginStore implements LastLoginStore {
+
+    private static final String UPDATE_LAST_LOGIN =
+            "update user set last_login = ? where id = ? and (last_login is null or last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcLastLoginStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        List<Object[]> updates = new ArrayList<>(lastLogins.size());
+        lastLogins.forEach((userId, lastLogin) -> {
+            Timestamp timestamp = Timestamp.valueOf(lastLogin);
+            updates.add(new Object[]{timestamp, userId, timestamp});
+        });
+        jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, updates);
+    }
+}
@@ -0,0 +1,87 @@
+package com.globallogic.technique.repository;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link UserStore} over the JPA {@link UserRepository}. Inserts go straight to the
+ * database and the unique index on email is what detects a taken email.
+ */
+@Repository
+@Profile(ReactiveStack.NOT_PROFILE)
+@ConditionalOnProperty(name = "users.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaUserStore implements UserStore {
+
+    private final UserRepository userRepository;
+
+    public JpaUserStore(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public User insert(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public List<User> insertAll(List<User> users) {
+        try {
+            return userRepository.saveAllAndFlush(users);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        return userRepository.findById(id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return userRepository.findExistingEmails(emails);
+    }
+
+    @Override
+    public Optional<UserLoginView> findLoginView(UUID id) {
+        return UserLoginView.fromRows(userRepository.findLoginRowsById(id));
+    }
+
+    private static DataIntegrityViolationException translate(DataIntegrityViolationException e) {
+        return isEmailConflict(e) ? new DuplicateKeyException(e.getMessage(), e) : e;
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraint = ((ConstraintViolationException) cause).getConstraintName();
+                return constraint != null
+                        && constraint.toLowerCase(Locale.ROOT).contains(User.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+}
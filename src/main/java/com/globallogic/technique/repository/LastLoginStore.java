@@ -0,0 +1,14 @@
+package com.globallogic.technique.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persists buffered login timestamps. An update never moves a user's lastLogin backwards,
+ * so flushes may be retried or arrive out of order.
+ */
+public interface LastLoginStore {
+
+    void updateLastLogins(Map<UUID, LocalDateTime> lastLogins);
+}
@@ -0,0 +1,117 @@
+package com.globallogic.technique.repository;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.model.Phone;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginRow;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.globallogic.technique.util.UuidBytes.toBytes;
+
+/**
+ * R2DBC access to the {@code user} and {@code user_phones} tables used by the reactive
+ * stack. Ids are bound as 16 big-endian bytes, the same layout Hibernate stores.
+ */
+@Repository
+@Profile(ReactiveStack.PROFILE)
+public class ReactiveUserRepository implements LastLoginStore {
+
+    private static final String INSERT_USER =
+            "insert into user (id, created, email, is_active, last_login, name, password) "
+                    + "values (:id, :created, :email, :isActive, :lastLogin, :name, :password)";
+    private static final String INSERT_PHONE =
+            "insert into user_phones (user_id, number, citycode, contrycode) "
+                    + "values (:userId, :number, :citycode, :contrycode)";
+    private static final String SELECT_LOGIN_ROWS =
+            "select u.created, u.is_active, u.name, u.email, u.password, p.number, p.citycode, p.contrycode "
+                    + "from user u left join user_phones p on p.user_id = u.id where u.id = :id";
+    private static final String UPDATE_LAST_LOGIN =
+            "update user set last_login = :lastLogin where id = :id and (last_login is null or last_login < :lastLogin)";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Inserts the user and its phones; callers run it in a transaction. A taken email
+     * fails with the {@link User#EMAIL_UNIQUE_CONSTRAINT} violation.
+     */
+    public Mono<Void> insert(User user) {
+        byte[] id = toBytes(user.getId());
+        DatabaseClient.GenericExecuteSpec insertUser = databaseClient.sql(INSERT_USER)
+                .bind("id", id)
+                .bind("created", user.getCreated())
+                .bind("isActive", user.isActive())
+                .bind("lastLogin", user.getLastLogin());
+        insertUser = bindNullable(insertUser, "email", user.getEmail());
+        insertUser = bindNullable(insertUser, "name", user.getName());
+        insertUser = bindNullable(insertUser, "password", user.getPassword());
+
+        return insertUser.then()
+                .thenMany(Flux.fromIterable(user.getPhones() != null ? user.getPhones() : List.<Phone>of())
+                        .concatMap(phone -> insertPhone(id, phone)))
+                .then();
+    }
+
+    /**
+     * Reads the login columns of a user and its phones in one statement.
+     */
+    public Mono<UserLoginView> findLoginView(UUID id) {
+        return databaseClient.sql(SELECT_LOGIN_ROWS)
+                .bind("id", toBytes(id))
+                .map(row -> new UserLoginRow(
+                        id,
+                        row.get(0, LocalDateTime.class),
+                        Boolean.TRUE.equals(row.get(1, Boolean.class)),
+                        row.get(2, String.class),
+                        row.get(3, String.class),
+                        row.get(4, String.class),
+                        row.get(5, Long.class),
+                        row.get(6, Integer.class),
+                        row.get(7, String.class)))
+                .all()
+                .collectList()
+                .flatMap(rows -> Mono.justOrEmpty(UserLoginView.fromRows(rows)));
+    }
+
+    /**
+     * Called from the last login flusher thread, never from an event loop, so it waits
+     * for the updates to complete and surfaces failures to the caller.
+     */
+    @Override
+    public void updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        Flux.fromIterable(lastLogins.entrySet())
+                .concatMap(entry -> databaseClient.sql(UPDATE_LAST_LOGIN)
+                        .bind("lastLogin", entry.getValue())
+                        .bind("id", toBytes(entry.getKey()))
+                        .fetch()
+                        .rowsUpdated())
+                .then()
+                .block();
+    }
+
+    private Mono<Void> insertPhone(byte[] userId, Phone phone) {
+        DatabaseClient.GenericExecuteSpec insertPhone = databaseClient.sql(INSERT_PHONE)
+                .bind("userId", userId)
+                .bind("number", phone.getNumber())
+                .bind("citycode", phone.getCitycode());
+        return bindNullable(insertPhone, "contrycode", phone.getContrycode()).then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+}
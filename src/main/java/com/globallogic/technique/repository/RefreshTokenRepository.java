@@ -0,0 +1,31 @@
+package com.globallogic.technique.repository;
+
+import com.globallogic.technique.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Deletes the token if it has not expired yet. Only the caller that gets 1 back may
+     * use the token, which keeps it single-use across concurrent requests and instances.
+     */
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash and t.expiresAt > :now")
+    int deleteUnexpired(@Param("tokenHash") String tokenHash, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash and t.userId = :userId")
+    int deleteByTokenHashAndUserId(@Param("tokenHash") String tokenHash, @Param("userId") UUID userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,9 +1,17 @@
 package com.globallogic.technique.repository;
 
+import com.globallogic.technique.config.CacheConfig;
 import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginRow;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -11,4 +19,24 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Optional<User> findById(UUID id);
 
-}
\ No newline at end of file
+    /**
+     * Reads the login columns of a user and its phones in one statement, without
+     * materialising entities in the persistence context.
+     */
+    @Query("select new com.globallogic.technique.repository.projection.UserLoginRow("
+            + "u.id, u.created, u.isActive, u.name, u.email, u.password, p.number, p.citycode, p.contrycode) "
+            + "from User u left join u.phones p where u.id = :id")
+    List<UserLoginRow> findLoginRowsById(@Param("id") UUID id);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#p0.id", condition = "#p0.id != null")
+    <S extends User> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#p0.id", condition = "#p0.id != null")
+    <S extends User> S saveAndFlush(S entity);
+
+}
@@ -0,0 +1,42 @@
+package com.globallogic.technique.repository;
+
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The user storage operations the servlet stack needs, so the backend can be chosen with
+ * {@code users.store}: {@code jpa} (the default, {@link JpaUserStore}), {@code file}
+ * ({@link com.globallogic.technique.repository.file.FileUserStore}) or {@code sharded}
+ * ({@link com.globallogic.technique.repository.sharded.ShardedUserStore}).
+ */
+public interface UserStore {
+
+    /**
+     * Stores a new user, assigning its id.
+     *
+     * @throws DuplicateKeyException when the email is already taken
+     */
+    User insert(User user);
+
+    /**
+     * Stores new users all at once, assigning their ids.
+     *
+     * @throws DuplicateKeyException when an email is already taken; none of the users is stored then
+     */
+    List<User> insertAll(List<User> users);
+
+    Optional<User> findById(UUID id);
+
+    Optional<User> findByEmail(String email);
+
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    Optional<UserLoginView> findLoginView(UUID id);
+}
@@ -0,0 +1,433 @@
+package com.globallogic.technique.repository.file;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.LastLoginStore;
+import com.globallogic.technique.repository.UserStore;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import com.globallogic.technique.util.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * {@link UserStore} without a database: users live in an append-only {@link UserLog} and
+ * two in-memory indexes, id to record offset and email to id. Reads never lock, a lookup
+ * is a map get plus decoding one record from the mapping.
+ * <p>
+ * Writes are serialized by a lock that only covers the append; the fsync happens after
+ * it is released and is shared by every writer waiting at that moment. Login timestamps
+ * are appended as small LAST_LOGIN records. A periodic checkpoint saves the id index so
+ * a restart only replays the log written since, and once superseded records make up
+ * enough of the log it is compacted into a new generation.
+ */
+@Slf4j
+@Repository
+@Profile(ReactiveStack.NOT_PROFILE)
+@ConditionalOnProperty(name = "users.store", havingValue = "file")
+public class FileUserStore implements UserStore, LastLoginStore {
+
+    static final String LOG_FILE = "users.log";
+    static final String CHECKPOINT_FILE = "users.checkpoint";
+
+    private static final String COMPACTING_FILE = "users.log.compacting";
+    private static final String CHECKPOINT_TEMP_FILE = "users.checkpoint.tmp";
+    private static final int CHECKPOINT_MAGIC = 0x55534350;
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int CHECKPOINT_HEADER_LENGTH = 2 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final int CHECKPOINT_ENTRY_LENGTH = UserRecordCodec.ID_LENGTH + Integer.BYTES + UserRecordCodec.TIMESTAMP_LENGTH;
+
+    private final Path directory;
+    private final int initialSize;
+    private final boolean syncOnWrite;
+    private final double compactionGarbageRatio;
+    private final long compactionMinBytes;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, UUID> byEmail = new ConcurrentHashMap<>();
+    private volatile UserLog userLog;
+    private long liveBytes;
+
+    public FileUserStore(@Value("${users.store.file.directory:data/users}") Path directory,
+                         @Value("${users.store.file.initial-size-bytes:16777216}") int initialSize,
+                         @Value("${users.store.file.sync-on-write:true}") boolean syncOnWrite,
+                         @Value("${users.store.file.compaction.garbage-ratio:0.5}") double compactionGarbageRatio,
+                         @Value("${users.store.file.compaction.min-bytes:1048576}") long compactionMinBytes) {
+        this.directory = directory;
+        this.initialSize = initialSize;
+        this.syncOnWrite = syncOnWrite;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        this.compactionMinBytes = compactionMinBytes;
+        recover();
+    }
+
+    @Override
+    public User insert(User user) {
+        insertAll(List.of(user));
+        return user;
+    }
+
+    /**
+     * Reserves every email first, so either all users are stored or, on a taken email,
+     * none is and the reservations are released. The records are appended as one batch,
+     * so a crash halfway through does not bring part of it back on recovery.
+     */
+    @Override
+    public List<User> insertAll(List<User> users) {
+        List<String> reserved = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getId() == null) {
+                user.setId(UuidV7.next());
+            }
+            if (user.getEmail() == null) {
+                continue;
+            }
+            if (byEmail.putIfAbsent(user.getEmail(), user.getId()) != null) {
+                reserved.forEach(byEmail::remove);
+                throw new DuplicateKeyException("A user with email " + user.getEmail() + " already exists");
+            }
+            reserved.add(user.getEmail());
+        }
+
+        List<byte[]> records = new ArrayList<>(users.size());
+        for (User user : users) {
+            records.add(UserRecordCodec.encodeUser(user));
+        }
+
+        UserLog current;
+        int end;
+        writeLock.lock();
+        try {
+            current = userLog;
+            int[] offsets = current.appendAll(records);
+            for (int i = 0; i < users.size(); i++) {
+                byId.put(users.get(i).getId(), new Entry(current, offsets[i], users.get(i).getLastLogin()));
+                liveBytes += UserLog.FRAME_LENGTH + records.get(i).length;
+            }
+            end = current.position();
+        } catch (RuntimeException e) {
+            users.forEach(user -> byId.remove(user.getId()));
+            reserved.forEach(byEmail::remove);
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (syncOnWrite) {
+            current.sync(end);
+        }
+        return users;
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        Entry entry = byId.get(id);
+        return entry != null
+                ? Optional.of(UserRecordCodec.decodeUser(entry.log.read(entry.offset), entry.lastLogin))
+                : Optional.empty();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        UUID id = byEmail.get(email);
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            if (email != null && byEmail.containsKey(email)) {
+                existing.add(email);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public Optional<UserLoginView> findLoginView(UUID id) {
+        Entry entry = byId.get(id);
+        return entry != null
+                ? Optional.of(UserRecordCodec.decodeLoginView(entry.log.read(entry.offset)))
+                : Optional.empty();
+    }
+
+    @Override
+    public void updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        UserLog current;
+        int end;
+        writeLock.lock();
+        try {
+            current = userLog;
+            for (Map.Entry<UUID, LocalDateTime> update : lastLogins.entrySet()) {
+                Entry entry = byId.get(update.getKey());
+                if (entry == null || (entry.lastLogin != null && !update.getValue().isAfter(entry.lastLogin))) {
+                    continue;
+                }
+                current.append(UserRecordCodec.encodeLastLogin(update.getKey(), update.getValue()));
+                byId.put(update.getKey(), new Entry(entry.log, entry.offset, update.getValue()));
+            }
+            end = current.position();
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (syncOnWrite) {
+            current.sync(end);
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Bytes of the log taken by records that a compaction would drop.
+     */
+    public long garbageBytes() {
+        writeLock.lock();
+        try {
+            return userLog.position() - UserLog.HEADER_LENGTH - liveBytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Compacts the log when enough of it is garbage, otherwise just writes a checkpoint.
+     */
+    @Scheduled(initialDelayString = "${users.store.file.checkpoint-interval-ms:60000}",
+            fixedDelayString = "${users.store.file.checkpoint-interval-ms:60000}")
+    public synchronized void maintain() {
+        long garbage = garbageBytes();
+        if (garbage >= compactionMinBytes && garbage >= compactionGarbageRatio * userLog.position()) {
+            compact();
+        } else {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Saves the id index and the log position it covers. The log is synced up to that
+     * position first, so the checkpoint never refers to records that could be lost.
+     */
+    public synchronized void checkpoint() {
+        UserLog current;
+        int position;
+        List<Map.Entry<UUID, Entry>> entries;
+        writeLock.lock();
+        try {
+            current = userLog;
+            position = current.position();
+            entries = new ArrayList<>(byId.entrySet());
+        } finally {
+            writeLock.unlock();
+        }
+
+        current.sync(position);
+        writeCheckpoint(current.generation(), position, entries);
+    }
+
+    /**
+     * Rewrites the live users, with their latest lastLogin folded in, into a new log of
+     * the next generation and swaps it in. Writers wait for the copy; readers keep
+     * reading the old mapping until their entry moves to the new one.
+     */
+    public synchronized void compact() {
+        Path compacting = directory.resolve(COMPACTING_FILE);
+        writeLock.lock();
+        try {
+            UserLog old = userLog;
+            Files.deleteIfExists(compacting);
+            long size = Math.max(initialSize, UserLog.HEADER_LENGTH + 2 * liveBytes);
+            UserLog compacted = UserLog.open(compacting, old.generation() + 1, (int) Math.min(Integer.MAX_VALUE - 8, size));
+
+            Map<UUID, Entry> moved = new ConcurrentHashMap<>();
+            for (Map.Entry<UUID, Entry> entry : byId.entrySet()) {
+                Entry current = entry.getValue();
+                byte[] record = UserRecordCodec.withLastLogin(current.log.read(current.offset), current.lastLogin);
+                moved.put(entry.getKey(), new Entry(compacted, compacted.append(record), current.lastLogin));
+            }
+            compacted.sync(compacted.position());
+            Files.move(compacting, directory.resolve(LOG_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            byId.putAll(moved);
+            userLog = compacted;
+            old.close();
+            writeCheckpoint(compacted.generation(), compacted.position(), new ArrayList<>(moved.entrySet()));
+            log.info("Compacted the user log to generation {}: {} users, {} bytes",
+                    compacted.generation(), moved.size(), compacted.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact the user log in " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        checkpoint();
+        userLog.close();
+    }
+
+    /**
+     * Loads the checkpoint when it matches the log generation and replays the records
+     * written after it; without a usable checkpoint the whole log is replayed.
+     */
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the user store directory " + directory, e);
+        }
+        userLog = UserLog.open(directory.resolve(LOG_FILE), 0, initialSize);
+
+        int from = loadCheckpoint(userLog);
+        userLog.scan(from, this::replay);
+        log.info("Recovered {} users from {} (checkpoint at {}, log at {})",
+                byId.size(), directory, from, userLog.position());
+    }
+
+    private void replay(int offset, ByteBuffer record) {
+        UUID id = UserRecordCodec.id(record);
+        LocalDateTime lastLogin = UserRecordCodec.lastLogin(record);
+        if (UserRecordCodec.type(record) == UserRecordCodec.USER) {
+            index(id, new Entry(userLog, offset, lastLogin), record);
+        } else {
+            byId.computeIfPresent(id, (key, entry) -> entry.lastLogin == null || lastLogin.isAfter(entry.lastLogin)
+                    ? new Entry(entry.log, entry.offset, lastLogin)
+                    : entry);
+        }
+    }
+
+    private void index(UUID id, Entry entry, ByteBuffer record) {
+        byId.put(id, entry);
+        String email = UserRecordCodec.email(record);
+        if (email != null) {
+            byEmail.put(email, id);
+        }
+        liveBytes += UserLog.FRAME_LENGTH + record.remaining();
+    }
+
+    /**
+     * @return the log position the checkpoint covers, or the end of the header when there
+     * is no checkpoint for this generation of the log
+     */
+    private int loadCheckpoint(UserLog current) {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return UserLog.HEADER_LENGTH;
+        }
+
+        try {
+            ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (checkpoint.remaining() < CHECKPOINT_HEADER_LENGTH + Integer.BYTES
+                    || checkpoint.getInt(0) != CHECKPOINT_MAGIC
+                    || checkpoint.getInt(Integer.BYTES) != CHECKPOINT_VERSION
+                    || !hasValidChecksum(checkpoint)
+                    || checkpoint.getLong(2 * Integer.BYTES) != current.generation()) {
+                log.warn("Ignoring the user store checkpoint in {}, replaying the whole log", directory);
+                return UserLog.HEADER_LENGTH;
+            }
+
+            int position = checkpoint.getInt(2 * Integer.BYTES + Long.BYTES);
+            int count = checkpoint.getInt(3 * Integer.BYTES + Long.BYTES);
+            for (int i = 0; i < count; i++) {
+                int offset = CHECKPOINT_HEADER_LENGTH + i * CHECKPOINT_ENTRY_LENGTH;
+                UUID id = new UUID(checkpoint.getLong(offset), checkpoint.getLong(offset + Long.BYTES));
+                int recordOffset = checkpoint.getInt(offset + UserRecordCodec.ID_LENGTH);
+                LocalDateTime lastLogin = UserRecordCodec.timestamp(checkpoint, offset + UserRecordCodec.ID_LENGTH + Integer.BYTES);
+                index(id, new Entry(current, recordOffset, lastLogin), current.read(recordOffset));
+            }
+            return position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the user store checkpoint " + path, e);
+        }
+    }
+
+    private void writeCheckpoint(long generation, int position, List<Map.Entry<UUID, Entry>> entries) {
+        ByteBuffer checkpoint = ByteBuffer.allocate(CHECKPOINT_HEADER_LENGTH
+                + entries.size() * CHECKPOINT_ENTRY_LENGTH + Integer.BYTES);
+        checkpoint.putInt(CHECKPOINT_MAGIC);
+        checkpoint.putInt(CHECKPOINT_VERSION);
+        checkpoint.putLong(generation);
+        checkpoint.putInt(position);
+        checkpoint.putInt(entries.size());
+        for (Map.Entry<UUID, Entry> entry : entries) {
+            UserRecordCodec.putId(checkpoint, entry.getKey());
+            checkpoint.putInt(entry.getValue().offset);
+            UserRecordCodec.putTimestamp(checkpoint, entry.getValue().lastLogin);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(checkpoint.array(), 0, checkpoint.position());
+        checkpoint.putInt((int) crc.getValue());
+        checkpoint.flip();
+
+        Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (checkpoint.hasRemaining()) {
+                    channel.write(checkpoint);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the user store checkpoint in " + directory, e);
+        }
+    }
+
+    private static boolean hasValidChecksum(ByteBuffer checkpoint) {
+        int end = checkpoint.limit() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(checkpoint.array(), 0, end);
+        return (int) crc.getValue() == checkpoint.getInt(end);
+    }
+
+    /**
+     * Where a user's record lives and its latest lastLogin, which may be newer than the
+     * one in the record. Replaced, never mutated, so readers need no lock.
+     */
+    private static final class Entry {
+
+        private final UserLog log;
+        private final int offset;
+        private final LocalDateTime lastLogin;
+
+        private Entry(UserLog log, int offset, LocalDateTime lastLogin) {
+            this.log = log;
+            this.offset = offset;
+            this.lastLogin = lastLogin;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.globallogic.technique.repository.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped record log. After a 16 byte header (magic, version and the
+ * generation bumped by every compaction) each record is framed as
+ * {@code [int length][int crc32][body]}; the mapped region past the last record is zero,
+ * so a zero length marks the end of the log. Records that must survive a crash together
+ * are appended as one batch, {@code [int BATCH | length][int crc32][record frames]}, with
+ * the checksum over all of them: a batch cut short is dropped whole on recovery.
+ * <p>
+ * Appends must be serialized by the caller, reads are lock-free: offsets handed out by
+ * {@link #append} stay valid for the life of the log, including after the mapping grows.
+ * {@link #sync} forces the mapping to disk, sharing one force between all the writers
+ * waiting on it.
+ */
+final class UserLog implements Closeable {
+
+    static final int HEADER_LENGTH = 16;
+    static final int FRAME_LENGTH = 2 * Integer.BYTES;
+
+    /**
+     * Set in the length of a batch frame; the remaining bits are the length of its records.
+     */
+    private static final int BATCH = Integer.MIN_VALUE;
+
+    private static final int MAGIC = 0x55534C47;
+    private static final int VERSION = 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long generation;
+    private volatile MappedByteBuffer buffer;
+    private volatile int position;
+
+    private final Object syncLock = new Object();
+    private int syncedPosition;
+    private boolean syncing;
+
+    private UserLog(Path path, FileChannel channel, MappedByteBuffer buffer, long generation) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.generation = generation;
+        this.position = HEADER_LENGTH;
+        this.syncedPosition = HEADER_LENGTH;
+    }
+
+    /**
+     * Opens the log at {@code path}, creating it with {@code generation} when it does not
+     * exist yet. The position is left at the header until the log is {@link #scan scanned}.
+     */
+    static UserLog open(Path path, long generation, int initialSize) {
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean created = channel.size() == 0;
+            int capacity = (int) Math.max(Math.max(initialSize, HEADER_LENGTH), channel.size());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(Integer.BYTES, VERSION);
+                buffer.putLong(2 * Integer.BYTES, generation);
+                buffer.force();
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                channel.close();
+                throw new IllegalStateException("Not a user log: " + path);
+            }
+            return new UserLog(path, channel, buffer, buffer.getLong(2 * Integer.BYTES));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the user log " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * End of the last appended record.
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Appends a record and returns its offset. Callers must hold the store's write lock.
+     */
+    int append(byte[] record) {
+        int offset = position;
+        int end = offset + FRAME_LENGTH + record.length;
+        ensureCapacity(end);
+
+        ByteBuffer target = buffer.duplicate();
+        putFrame(target, offset, record);
+        position = end;
+        return offset;
+    }
+
+    /**
+     * Appends the records as one batch that recovery either replays whole or drops, and
+     * returns the offset of each record. Callers must hold the store's write lock.
+     */
+    int[] appendAll(List<byte[]> records) {
+        if (records.size() == 1) {
+            return new int[]{append(records.get(0))};
+        }
+        int batch = position;
+        int length = 0;
+        for (byte[] record : records) {
+            length += FRAME_LENGTH + record.length;
+        }
+        int end = batch + FRAME_LENGTH + length;
+        ensureCapacity(end);
+
+        ByteBuffer target = buffer.duplicate();
+        int[] offsets = new int[records.size()];
+        int offset = batch + FRAME_LENGTH;
+        for (int i = 0; i < records.size(); i++) {
+            offsets[i] = offset;
+            putFrame(target, offset, records.get(i));
+            offset += FRAME_LENGTH + records.get(i).length;
+        }
+        target.putInt(batch + Integer.BYTES, checksum(target, batch + FRAME_LENGTH, end));
+        // The length goes last: until it is written the batch reads as the end of the log.
+        target.putInt(batch, BATCH | length);
+        position = end;
+        return offsets;
+    }
+
+    /**
+     * The body of the record at {@code offset}, as a read-only view of the mapping.
+     */
+    ByteBuffer read(int offset) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        int length = view.getInt(offset);
+        view.limit(offset + FRAME_LENGTH + length).position(offset + FRAME_LENGTH);
+        return view.slice();
+    }
+
+    /**
+     * Visits every complete record from {@code from} on and moves the position after the
+     * last one. A record or batch cut short by a crash, or failing its checksum, ends the
+     * log: everything after it is zeroed, so no stale frame of a torn batch can line up
+     * with a later append and be replayed.
+     */
+    void scan(int from, RecordVisitor visitor) {
+        MappedByteBuffer mapped = buffer;
+        int capacity = mapped.capacity();
+        int offset = from;
+        while (offset + FRAME_LENGTH <= capacity) {
+            int header = mapped.getInt(offset);
+            boolean batch = (header & BATCH) != 0;
+            int length = header & ~BATCH;
+            int end = offset + FRAME_LENGTH + length;
+            // a record's checksum covers its body, a batch's all of its record frames
+            if (length == 0 || end < 0 || end > capacity
+                    || checksum(mapped, offset + FRAME_LENGTH, end) != mapped.getInt(offset + Integer.BYTES)
+                    || batch && !framesFit(mapped, offset + FRAME_LENGTH, end)) {
+                break;
+            }
+            if (batch) {
+                for (int record = offset + FRAME_LENGTH; record < end; record += FRAME_LENGTH + mapped.getInt(record)) {
+                    visitor.visit(record, read(record));
+                }
+            } else {
+                visitor.visit(offset, read(offset));
+            }
+            offset = end;
+        }
+
+        for (int i = offset; i < capacity; i++) {
+            if (mapped.get(i) != 0) {
+                mapped.put(i, (byte) 0);
+            }
+        }
+        position = offset;
+        synchronized (syncLock) {
+            syncedPosition = offset;
+        }
+    }
+
+    /**
+     * Returns once everything up to {@code upTo} is on disk. The monitor is released while
+     * forcing, so writers arriving meanwhile queue up and are covered by one next force.
+     */
+    void sync(int upTo) {
+        int target;
+        synchronized (syncLock) {
+            while (syncing && syncedPosition < upTo) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while syncing the user log", e);
+                }
+            }
+            if (syncedPosition >= upTo) {
+                return;
+            }
+            syncing = true;
+            target = position;
+        }
+
+        boolean forced = false;
+        try {
+            buffer.force();
+            forced = true;
+        } finally {
+            synchronized (syncLock) {
+                if (forced) {
+                    syncedPosition = Math.max(syncedPosition, target);
+                }
+                syncing = false;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close the user log " + path, e);
+        }
+    }
+
+    private static void putFrame(ByteBuffer target, int offset, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        target.position(offset + FRAME_LENGTH);
+        target.put(record);
+        target.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        // The length goes last: until it is written the record reads as the end of the log.
+        target.putInt(offset, record.length);
+    }
+
+    private static int checksum(ByteBuffer source, int from, int to) {
+        ByteBuffer range = source.duplicate();
+        range.limit(to).position(from);
+        CRC32 crc = new CRC32();
+        crc.update(range);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Whether the record frames of a batch tile its body exactly.
+     */
+    private static boolean framesFit(ByteBuffer source, int from, int to) {
+        int offset = from;
+        while (offset + FRAME_LENGTH <= to) {
+            int length = source.getInt(offset);
+            if (length <= 0 || length > to - offset - FRAME_LENGTH) {
+                return false;
+            }
+            offset += FRAME_LENGTH + length;
+        }
+        return offset == to;
+    }
+
+    /**
+     * Grows the mapping to hold {@code end} bytes. An {@code end} past
+     * {@code Integer.MAX_VALUE} has wrapped around to a negative offset.
+     */
+    private void ensureCapacity(int end) {
+        if (end < 0) {
+            throw new IllegalStateException("The user log is full: " + path);
+        }
+        MappedByteBuffer mapped = buffer;
+        if (end <= mapped.capacity()) {
+            return;
+        }
+        long grown = Math.max(end, 2L * mapped.capacity());
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, grown);
+        if (capacity < end) {
+            throw new IllegalStateException("The user log is full: " + path);
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow the user log " + path, e);
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+
+        void visit(int offset, ByteBuffer record);
+    }
+}
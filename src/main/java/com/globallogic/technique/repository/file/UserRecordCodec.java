@@ -0,0 +1,248 @@
+package com.globallogic.technique.repository.file;
+
+import com.globallogic.technique.dto.response.PhoneResponseDto;
+import com.globallogic.technique.model.Phone;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary layout of the records in the user log. Every record starts with its type and the
+ * user id; timestamps are epoch second and nanosecond of the local date-time (epoch second
+ * {@code Long.MIN_VALUE} for null), strings are a varint length plus one (zero for null)
+ * followed by UTF-8 bytes.
+ * <pre>
+ * USER:       type id created lastLogin active name email password phoneCount (number citycode contrycode)*
+ * LAST_LOGIN: type id lastLogin
+ * </pre>
+ */
+final class UserRecordCodec {
+
+    static final byte USER = 1;
+    static final byte LAST_LOGIN = 2;
+
+    static final int ID_LENGTH = 16;
+    static final int TIMESTAMP_LENGTH = 12;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private UserRecordCodec() {
+    }
+
+    static byte[] encodeUser(User user) {
+        byte[] name = utf8(user.getName());
+        byte[] email = utf8(user.getEmail());
+        byte[] password = utf8(user.getPassword());
+        List<Phone> phones = user.getPhones() != null ? user.getPhones() : Collections.emptyList();
+
+        List<byte[]> countryCodes = new ArrayList<>(phones.size());
+        int phonesLength = 0;
+        for (Phone phone : phones) {
+            byte[] countryCode = utf8(phone.getContrycode());
+            countryCodes.add(countryCode);
+            phonesLength += Long.BYTES + Integer.BYTES + stringLength(countryCode);
+        }
+
+        int length = 1 + ID_LENGTH + 2 * TIMESTAMP_LENGTH + 1
+                + stringLength(name) + stringLength(email) + stringLength(password)
+                + varintLength(phones.size()) + phonesLength;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(USER);
+        putId(buffer, user.getId());
+        putTimestamp(buffer, user.getCreated());
+        putTimestamp(buffer, user.getLastLogin());
+        buffer.put((byte) (user.isActive() ? 1 : 0));
+        putString(buffer, name);
+        putString(buffer, email);
+        putString(buffer, password);
+        putVarint(buffer, phones.size());
+        for (int i = 0; i < phones.size(); i++) {
+            buffer.putLong(phones.get(i).getNumber());
+            buffer.putInt(phones.get(i).getCitycode());
+            putString(buffer, countryCodes.get(i));
+        }
+        return buffer.array();
+    }
+
+    static byte[] encodeLastLogin(UUID id, LocalDateTime lastLogin) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + ID_LENGTH + TIMESTAMP_LENGTH);
+        buffer.put(LAST_LOGIN);
+        putId(buffer, id);
+        putTimestamp(buffer, lastLogin);
+        return buffer.array();
+    }
+
+    /**
+     * A copy of a USER record carrying {@code lastLogin}, so compaction can fold the
+     * LAST_LOGIN records into it without decoding the rest.
+     */
+    static byte[] withLastLogin(ByteBuffer record, LocalDateTime lastLogin) {
+        ByteBuffer copy = ByteBuffer.allocate(record.remaining());
+        copy.put(record.duplicate());
+        copy.position(1 + ID_LENGTH + TIMESTAMP_LENGTH);
+        putTimestamp(copy, lastLogin);
+        return copy.array();
+    }
+
+    static byte type(ByteBuffer record) {
+        return record.get(0);
+    }
+
+    static UUID id(ByteBuffer record) {
+        return new UUID(record.getLong(1), record.getLong(1 + Long.BYTES));
+    }
+
+    /**
+     * The lastLogin of a USER or LAST_LOGIN record.
+     */
+    static LocalDateTime lastLogin(ByteBuffer record) {
+        int offset = 1 + ID_LENGTH + (type(record) == USER ? TIMESTAMP_LENGTH : 0);
+        return timestamp(record, offset);
+    }
+
+    static String email(ByteBuffer record) {
+        ByteBuffer buffer = userFields(record);
+        skipString(buffer);
+        return getString(buffer);
+    }
+
+    static User decodeUser(ByteBuffer record, LocalDateTime lastLogin) {
+        UUID id = id(record);
+        LocalDateTime created = timestamp(record, 1 + ID_LENGTH);
+        boolean active = record.get(1 + ID_LENGTH + 2 * TIMESTAMP_LENGTH) == 1;
+        ByteBuffer buffer = userFields(record);
+        String name = getString(buffer);
+        String email = getString(buffer);
+        String password = getString(buffer);
+
+        int phoneCount = getVarint(buffer);
+        List<Phone> phones = new ArrayList<>(phoneCount);
+        for (int i = 0; i < phoneCount; i++) {
+            phones.add(new Phone(buffer.getLong(), buffer.getInt(), getString(buffer)));
+        }
+
+        return User.builder()
+                .id(id)
+                .created(created)
+                .lastLogin(lastLogin)
+                .isActive(active)
+                .name(name)
+                .email(email)
+                .password(password)
+                .phones(phones)
+                .build();
+    }
+
+    static UserLoginView decodeLoginView(ByteBuffer record) {
+        UUID id = id(record);
+        LocalDateTime created = timestamp(record, 1 + ID_LENGTH);
+        boolean active = record.get(1 + ID_LENGTH + 2 * TIMESTAMP_LENGTH) == 1;
+        ByteBuffer buffer = userFields(record);
+        String name = getString(buffer);
+        String email = getString(buffer);
+        String password = getString(buffer);
+
+        int phoneCount = getVarint(buffer);
+        List<PhoneResponseDto> phones = new ArrayList<>(phoneCount);
+        for (int i = 0; i < phoneCount; i++) {
+            phones.add(PhoneResponseDto.builder()
+                    .number(buffer.getLong())
+                    .citycode(buffer.getInt())
+                    .contrycode(getString(buffer))
+                    .build());
+        }
+        return new UserLoginView(id, created, active, name, email, password, Collections.unmodifiableList(phones));
+    }
+
+    private static ByteBuffer userFields(ByteBuffer record) {
+        ByteBuffer buffer = record.duplicate();
+        buffer.position(1 + ID_LENGTH + 2 * TIMESTAMP_LENGTH + 1);
+        return buffer;
+    }
+
+    static void putId(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    static void putTimestamp(ByteBuffer buffer, LocalDateTime timestamp) {
+        buffer.putLong(timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : NO_TIMESTAMP);
+        buffer.putInt(timestamp != null ? timestamp.getNano() : 0);
+    }
+
+    static LocalDateTime timestamp(ByteBuffer record, int offset) {
+        long epochSecond = record.getLong(offset);
+        return epochSecond != NO_TIMESTAMP
+                ? LocalDateTime.ofEpochSecond(epochSecond, record.getInt(offset + Long.BYTES), ZoneOffset.UTC)
+                : null;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringLength(byte[] value) {
+        int length = value != null ? value.length : 0;
+        return varintLength(value != null ? length + 1 : 0) + length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            putVarint(buffer, 0);
+            return;
+        }
+        putVarint(buffer, value.length + 1);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = getVarint(buffer) - 1;
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.globallogic.technique.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the login projection: the user columns repeated for each phone, with
+ * null phone columns for a user without phones.
+ */
+@Getter
+@AllArgsConstructor
+public class UserLoginRow {
+
+    private final UUID id;
+    private final LocalDateTime created;
+    private final boolean isActive;
+    private final String name;
+    private final String email;
+    private final String password;
+    private final Long number;
+    private final Integer citycode;
+    private final String contrycode;
+}
@@ -0,0 +1,48 @@
+package com.globallogic.technique.repository.projection;
+
+import com.globallogic.technique.dto.response.PhoneResponseDto;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable read model with exactly what the login response needs, built straight from
+ * projection rows without hydrating or tracking a {@code User} entity.
+ */
+@Value
+public class UserLoginView {
+
+    UUID id;
+    LocalDateTime created;
+    boolean isActive;
+    String name;
+    String email;
+    String password;
+    List<PhoneResponseDto> phones;
+
+    public static Optional<UserLoginView> fromRows(List<UserLoginRow> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<PhoneResponseDto> phones = new ArrayList<>(rows.size());
+        for (UserLoginRow row : rows) {
+            if (row.getNumber() != null) {
+                phones.add(PhoneResponseDto.builder()
+                        .number(row.getNumber())
+                        .citycode(row.getCitycode())
+                        .contrycode(row.getContrycode())
+                        .build());
+            }
+        }
+
+        UserLoginRow user = rows.get(0);
+        return Optional.of(new UserLoginView(user.getId(), user.getCreated(), user.isActive(),
+                user.getName(), user.getEmail(), user.getPassword(), Collections.unmodifiableList(phones)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.globallogic.technique.repository.sharded;
+
+import com.globallogic.technique.util.Murmur3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.globallogic.technique.util.Murmur3.mix;
+
+/**
+ * Consistent hash ring over named nodes. Every node owns {@code virtualNodes} points
+ * placed by hashing its name, so the placement only depends on the names: adding a node
+ * moves roughly {@code 1/n} of the keys, all of them to the new node.
+ */
+public final class ConsistentHashRing<T> {
+
+    private final long[] points;
+    private final List<T> owners;
+
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A hash ring needs at least one node and one virtual node per node");
+        }
+
+        List<Map.Entry<Long, T>> placed = new ArrayList<>(nodes.size() * virtualNodes);
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                placed.add(Map.entry(hash(name + "#" + i), node));
+            }
+        });
+        placed.sort(Comparator.comparing(Map.Entry::getKey));
+
+        this.points = new long[placed.size()];
+        this.owners = new ArrayList<>(placed.size());
+        for (int i = 0; i < placed.size(); i++) {
+            points[i] = placed.get(i).getKey();
+            owners.add(placed.get(i).getValue());
+        }
+    }
+
+    /**
+     * The node owning the first point at or after {@code hash}, wrapping around the ring.
+     */
+    public T nodeFor(long hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners.get(index == points.length ? 0 : index);
+    }
+
+    public T nodeFor(UUID id) {
+        return nodeFor(Murmur3.hash(id));
+    }
+
+    public T nodeFor(String key) {
+        return nodeFor(hash(key));
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the murmur mixer so that similar keys
+     * such as sequential emails spread over the whole ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+}
@@ -0,0 +1,99 @@
+package com.globallogic.technique.repository.sharded;
+
+import com.globallogic.technique.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Moves users and email directory entries to the shard the ring assigns them, after
+ * shards were added or removed from {@code users.store.sharded.shards}. Run it before
+ * serving traffic ({@code users.store.sharded.rebalance-on-startup}), since a user is
+ * not found while it is being moved.
+ * <p>
+ * Every row is copied to its new shard before it is deleted from the old one, and a copy
+ * that already exists is kept, so an interrupted run is completed by running it again.
+ * Removing a shard requires keeping it listed until a rebalance has emptied it.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private final UserShards shards;
+
+    public ShardRebalancer(UserShards shards) {
+        this.shards = shards;
+    }
+
+    public Result rebalance() {
+        int movedUsers = 0;
+        int movedEmails = 0;
+        for (UserShard source : shards.all()) {
+            movedUsers += moveUsers(source);
+            movedEmails += moveEmails(source);
+        }
+        return new Result(movedUsers, movedEmails);
+    }
+
+    private int moveUsers(UserShard source) {
+        Map<UserShard, List<UUID>> misplaced = new LinkedHashMap<>();
+        for (UUID id : source.findUserIds()) {
+            UserShard target = shards.forUser(id);
+            if (target != source) {
+                misplaced.computeIfAbsent(target, shard -> new ArrayList<>()).add(id);
+            }
+        }
+
+        int moved = 0;
+        for (Map.Entry<UserShard, List<UUID>> entry : misplaced.entrySet()) {
+            UserShard target = entry.getKey();
+            List<User> copies = new ArrayList<>(entry.getValue().size());
+            for (UUID id : entry.getValue()) {
+                if (!target.findUser(id).isPresent()) {
+                    Optional<User> user = source.findUser(id);
+                    user.ifPresent(copies::add);
+                }
+            }
+            if (!copies.isEmpty()) {
+                target.insertUsers(copies);
+            }
+            source.deleteUsers(entry.getValue());
+            moved += entry.getValue().size();
+            log.info("Moved {} users from shard {} to shard {}", entry.getValue().size(), source, target);
+        }
+        return moved;
+    }
+
+    private int moveEmails(UserShard source) {
+        Map<UserShard, Map<String, UUID>> misplaced = new LinkedHashMap<>();
+        source.findEmails().forEach((email, userId) -> {
+            UserShard target = shards.forEmail(email);
+            if (target != source) {
+                misplaced.computeIfAbsent(target, shard -> new LinkedHashMap<>()).put(email, userId);
+            }
+        });
+
+        int moved = 0;
+        for (Map.Entry<UserShard, Map<String, UUID>> entry : misplaced.entrySet()) {
+            entry.getKey().putEmails(entry.getValue());
+            source.releaseEmails(entry.getValue().keySet());
+            moved += entry.getValue().size();
+            log.info("Moved {} emails from shard {} to shard {}", entry.getValue().size(), source, entry.getKey());
+        }
+        return moved;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Result {
+
+        private final int movedUsers;
+        private final int movedEmails;
+    }
+}
@@ -0,0 +1,222 @@
+package com.globallogic.technique.repository.sharded;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.LastLoginStore;
+import com.globallogic.technique.repository.UserStore;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import com.globallogic.technique.util.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link UserStore} partitioned over {@link UserShards}. A user and its phones live on
+ * the shard of its id, so a login, which only knows the id from the token subject, is a
+ * single query on one shard. Emails live in a directory partitioned by email; its
+ * primary key is what keeps an email unique across shards, and it maps the email to the
+ * user id for lookups by email.
+ * <p>
+ * A sign-up claims the email first and then inserts the user on its shard. When the
+ * insert fails the claim is released, so a failed sign-up never leaves a taken email.
+ * A process that dies between the claim and the insert cannot release it, so every
+ * {@code users.store.sharded.orphan-sweep.interval-ms} the claims older than
+ * {@code min-age-ms} and made since the previous sweep are checked, and those whose user
+ * does not exist are released. The first sweep after a start looks back
+ * {@code lookback-ms}, which covers the claims of an instance that crashed.
+ */
+@Slf4j
+@Repository
+@Profile(ReactiveStack.NOT_PROFILE)
+@ConditionalOnProperty(name = "users.store", havingValue = "sharded")
+public class ShardedUserStore implements UserStore, LastLoginStore {
+
+    static final int SWEEP_BATCH_SIZE = 1000;
+
+    private final UserShards shards;
+    private final Duration orphanMinAge;
+    private final Duration orphanLookback;
+    private Instant sweptUpTo;
+
+    @Autowired
+    public ShardedUserStore(UserShards shards,
+                            @Value("${users.store.sharded.rebalance-on-startup:false}") boolean rebalanceOnStartup,
+                            @Value("${users.store.sharded.orphan-sweep.min-age-ms:60000}") long orphanMinAgeMs,
+                            @Value("${users.store.sharded.orphan-sweep.lookback-ms:86400000}") long orphanLookbackMs) {
+        this.shards = shards;
+        this.orphanMinAge = Duration.ofMillis(orphanMinAgeMs);
+        this.orphanLookback = Duration.ofMillis(orphanLookbackMs);
+        if (rebalanceOnStartup) {
+            ShardRebalancer.Result result = new ShardRebalancer(shards).rebalance();
+            log.info("Rebalanced the user shards: moved {} users and {} emails", result.getMovedUsers(), result.getMovedEmails());
+        }
+    }
+
+    public ShardedUserStore(UserShards shards) {
+        this(shards, false, 60_000, 86_400_000);
+    }
+
+    @Override
+    public User insert(User user) {
+        insertAll(List.of(user));
+        return user;
+    }
+
+    /**
+     * Claims every email and then inserts the users shard by shard. A taken email releases
+     * the claims made so far; a failed insert also deletes the users already inserted on
+     * other shards, so either all users are stored or none is.
+     */
+    @Override
+    public List<User> insertAll(List<User> users) {
+        List<User> claimed = new ArrayList<>(users.size());
+        Map<UserShard, List<User>> byShard = new LinkedHashMap<>();
+        for (User user : users) {
+            if (user.getId() == null) {
+                user.setId(UuidV7.next());
+            }
+            byShard.computeIfAbsent(shards.forUser(user.getId()), shard -> new ArrayList<>()).add(user);
+        }
+
+        List<UserShard> inserted = new ArrayList<>(byShard.size());
+        try {
+            for (User user : users) {
+                if (user.getEmail() != null) {
+                    shards.forEmail(user.getEmail()).claimEmail(user.getEmail(), user.getId());
+                    claimed.add(user);
+                }
+            }
+            for (Map.Entry<UserShard, List<User>> shardUsers : byShard.entrySet()) {
+                shardUsers.getKey().insertUsers(shardUsers.getValue());
+                inserted.add(shardUsers.getKey());
+            }
+        } catch (RuntimeException e) {
+            undo(byShard, inserted, claimed);
+            throw e;
+        }
+        return users;
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        return shards.forUser(id).findUser(id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return shards.forEmail(email).findUserIdByEmail(email).flatMap(this::findById);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Map<UserShard, List<String>> byShard = new LinkedHashMap<>();
+        for (String email : emails) {
+            if (email != null) {
+                byShard.computeIfAbsent(shards.forEmail(email), shard -> new ArrayList<>()).add(email);
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        byShard.forEach((shard, shardEmails) -> existing.addAll(shard.findExistingEmails(shardEmails)));
+        return existing;
+    }
+
+    @Override
+    public Optional<UserLoginView> findLoginView(UUID id) {
+        return UserLoginView.fromRows(shards.forUser(id).findLoginRows(id));
+    }
+
+    @Override
+    public void updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        Map<UserShard, Map<UUID, LocalDateTime>> byShard = new LinkedHashMap<>();
+        lastLogins.forEach((userId, lastLogin) ->
+                byShard.computeIfAbsent(shards.forUser(userId), shard -> new LinkedHashMap<>()).put(userId, lastLogin));
+        byShard.forEach(UserShard::updateLastLogins);
+    }
+
+    @Scheduled(fixedDelayString = "${users.store.sharded.orphan-sweep.interval-ms:300000}")
+    public void sweepOrphanedEmails() {
+        int released = releaseOrphanedEmails(Instant.now().minus(orphanMinAge));
+        if (released > 0) {
+            log.warn("Released {} email claims left behind by sign-ups that never inserted their user", released);
+        }
+    }
+
+    /**
+     * Releases the email claims made before {@code claimedBefore}, and since the previous
+     * sweep, whose user is not on its shard. Claims this recent could still belong to a
+     * sign-up in progress, so the cut-off has to leave it time to insert the user.
+     *
+     * @return the number of released claims
+     */
+    public synchronized int releaseOrphanedEmails(Instant claimedBefore) {
+        Instant from = sweptUpTo != null ? sweptUpTo : claimedBefore.minus(orphanLookback);
+        if (!from.isBefore(claimedBefore)) {
+            return 0;
+        }
+
+        int released = 0;
+        for (UserShard emailShard : shards.all()) {
+            List<Map.Entry<String, UUID>> claims = new ArrayList<>(emailShard.findEmailsClaimedBetween(from, claimedBefore).entrySet());
+            for (int start = 0; start < claims.size(); start += SWEEP_BATCH_SIZE) {
+                released += releaseOrphans(emailShard, claims.subList(start, Math.min(start + SWEEP_BATCH_SIZE, claims.size())));
+            }
+        }
+        sweptUpTo = claimedBefore;
+        return released;
+    }
+
+    private int releaseOrphans(UserShard emailShard, List<Map.Entry<String, UUID>> claims) {
+        Map<UserShard, List<UUID>> byShard = new LinkedHashMap<>();
+        for (Map.Entry<String, UUID> claim : claims) {
+            byShard.computeIfAbsent(shards.forUser(claim.getValue()), shard -> new ArrayList<>()).add(claim.getValue());
+        }
+        Set<UUID> existing = new HashSet<>();
+        byShard.forEach((shard, ids) -> existing.addAll(shard.findExistingUserIds(ids)));
+
+        Map<String, UUID> orphans = new LinkedHashMap<>();
+        for (Map.Entry<String, UUID> claim : claims) {
+            if (!existing.contains(claim.getValue())) {
+                orphans.put(claim.getKey(), claim.getValue());
+            }
+        }
+        if (!orphans.isEmpty()) {
+            emailShard.releaseClaims(orphans);
+        }
+        return orphans.size();
+    }
+
+    private void undo(Map<UserShard, List<User>> byShard, List<UserShard> inserted, List<User> claimed) {
+        try {
+            for (UserShard shard : inserted) {
+                List<UUID> ids = new ArrayList<>();
+                byShard.get(shard).forEach(user -> ids.add(user.getId()));
+                shard.deleteUsers(ids);
+            }
+            Map<UserShard, List<String>> claims = new LinkedHashMap<>();
+            for (User user : claimed) {
+                claims.computeIfAbsent(shards.forEmail(user.getEmail()), shard -> new ArrayList<>()).add(user.getEmail());
+            }
+            claims.forEach(UserShard::releaseEmails);
+        } catch (RuntimeException e) {
+            log.warn("Could not undo a failed sign-up of {} users: {}", claimed.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.globallogic.technique.repository.sharded;
+
+import com.globallogic.technique.model.Phone;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.projection.UserLoginRow;
+import com.globallogic.technique.util.UuidBytes;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.globallogic.technique.util.UuidBytes.fromBytes;
+import static com.globallogic.technique.util.UuidBytes.toBytes;
+
+/**
+ * The SQL run against one shard: the users and phones whose id hashes to it, and the
+ * part of the email directory whose email hashes to it. Ids are stored as 16 big-endian
+ * bytes.
+ */
+public class UserShard {
+
+    private static final String INSERT_USER =
+            "insert into user (id, created, email, is_active, last_login, name, password) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PHONE =
+            "insert into user_phones (user_id, number, citycode, contrycode) values (?, ?, ?, ?)";
+    private static final String SELECT_USER_ROWS =
+            "select u.created, u.is_active, u.name, u.email, u.password, u.last_login, p.number, p.citycode, p.contrycode "
+                    + "from user u left join user_phones p on p.user_id = u.id where u.id = ?";
+    private static final String SELECT_USER_IDS = "select id from user";
+    private static final String DELETE_PHONES = "delete from user_phones where user_id = ?";
+    private static final String DELETE_USER = "delete from user where id = ?";
+    private static final String UPDATE_LAST_LOGIN =
+            "update user set last_login = ? where id = ? and (last_login is null or last_login < ?)";
+    private static final String SELECT_EXISTING_USER_IDS = "select id from user where id in (:ids)";
+    private static final String INSERT_EMAIL = "insert into user_email (email, user_id, claimed_at) values (?, ?, ?)";
+    private static final String MERGE_EMAIL = "merge into user_email (email, user_id) key (email) values (?, ?)";
+    private static final String SELECT_EMAIL_USER_ID = "select user_id from user_email where email = ?";
+    private static final String SELECT_EXISTING_EMAILS = "select email from user_email where email in (:emails)";
+    private static final String SELECT_EMAILS = "select email, user_id from user_email";
+    private static final String SELECT_EMAILS_CLAIMED_BETWEEN =
+            "select email, user_id from user_email where claimed_at >= ? and claimed_at < ?";
+    private static final String DELETE_EMAIL = "delete from user_email where email = ?";
+    private static final String DELETE_EMAIL_CLAIM = "delete from user_email where email = ? and user_id = ?";
+
+    private final String name;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserShard(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Inserts the users and their phones in one transaction, as two JDBC batches.
+     */
+    public void insertUsers(List<User> users) {
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        List<Object[]> phoneRows = new ArrayList<>();
+        for (User user : users) {
+            byte[] id = toBytes(user.getId());
+            userRows.add(new Object[]{id, timestamp(user.getCreated()), user.getEmail(), user.isActive(),
+                    timestamp(user.getLastLogin()), user.getName(), user.getPassword()});
+            if (user.getPhones() != null) {
+                for (Phone phone : user.getPhones()) {
+                    phoneRows.add(new Object[]{id, phone.getNumber(), phone.getCitycode(), phone.getContrycode()});
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER, userRows);
+            if (!phoneRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_PHONE, phoneRows);
+            }
+        });
+    }
+
+    public void deleteUsers(Collection<UUID> ids) {
+        List<Object[]> rows = ids.stream()
+                .map(id -> new Object[]{toBytes(id)})
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_PHONES, rows);
+            jdbcTemplate.batchUpdate(DELETE_USER, rows);
+        });
+    }
+
+    public Optional<User> findUser(UUID id) {
+        List<UserLoginRow> rows = new ArrayList<>();
+        List<LocalDateTime> lastLogins = new ArrayList<>(1);
+        jdbcTemplate.query(SELECT_USER_ROWS, resultSet -> {
+            rows.add(loginRow(id, resultSet));
+            lastLogins.add(localDateTime(resultSet.getTimestamp(6)));
+        }, (Object) toBytes(id));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Phone> phones = new ArrayList<>(rows.size());
+        for (UserLoginRow row : rows) {
+            if (row.getNumber() != null) {
+                phones.add(new Phone(row.getNumber(), row.getCitycode(), row.getContrycode()));
+            }
+        }
+        UserLoginRow user = rows.get(0);
+        return Optional.of(User.builder()
+                .id(id)
+                .created(user.getCreated())
+                .lastLogin(lastLogins.get(0))
+                .isActive(user.isActive())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .phones(phones)
+                .build());
+    }
+
+    public List<UserLoginRow> findLoginRows(UUID id) {
+        return jdbcTemplate.query(SELECT_USER_ROWS, (resultSet, rowNumber) -> loginRow(id, resultSet), (Object) toBytes(id));
+    }
+
+    public List<UUID> findUserIds() {
+        return jdbcTemplate.query(SELECT_USER_IDS, (resultSet, rowNumber) -> fromBytes(resultSet.getBytes(1)));
+    }
+
+    public Set<UUID> findExistingUserIds(Collection<UUID> ids) {
+        List<byte[]> keys = ids.stream().map(UuidBytes::toBytes).collect(Collectors.toList());
+        return new HashSet<>(namedJdbcTemplate.query(SELECT_EXISTING_USER_IDS, Map.of("ids", keys),
+                (resultSet, rowNumber) -> fromBytes(resultSet.getBytes(1))));
+    }
+
+    public void updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        List<Object[]> updates = new ArrayList<>(lastLogins.size());
+        lastLogins.forEach((userId, lastLogin) -> {
+            Timestamp timestamp = Timestamp.valueOf(lastLogin);
+            updates.add(new Object[]{timestamp, toBytes(userId), timestamp});
+        });
+        jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, updates);
+    }
+
+    /**
+     * Records {@code email} as taken by {@code userId}.
+     *
+     * @throws DuplicateKeyException when the email is already taken
+     */
+    public void claimEmail(String email, UUID userId) {
+        jdbcTemplate.update(INSERT_EMAIL, email, toBytes(userId), Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * Inserts or overwrites directory entries; rebalancing uses it so a move can be
+     * repeated after an interruption.
+     */
+    public void putEmails(Map<String, UUID> emails) {
+        List<Object[]> rows = new ArrayList<>(emails.size());
+        emails.forEach((email, userId) -> rows.add(new Object[]{email, toBytes(userId)}));
+        jdbcTemplate.batchUpdate(MERGE_EMAIL, rows);
+    }
+
+    public void releaseEmails(Collection<String> emails) {
+        List<Object[]> rows = emails.stream()
+                .map(email -> new Object[]{email})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(DELETE_EMAIL, rows);
+    }
+
+    /**
+     * Deletes directory entries only while they still map to the same user, so an email
+     * claimed again in the meantime is kept.
+     */
+    public void releaseClaims(Map<String, UUID> claims) {
+        List<Object[]> rows = new ArrayList<>(claims.size());
+        claims.forEach((email, userId) -> rows.add(new Object[]{email, toBytes(userId)}));
+        jdbcTemplate.batchUpdate(DELETE_EMAIL_CLAIM, rows);
+    }
+
+    /**
+     * @return the directory entries claimed from {@code from}, inclusive, to {@code to}
+     */
+    public Map<String, UUID> findEmailsClaimedBetween(Instant from, Instant to) {
+        Map<String, UUID> emails = new HashMap<>();
+        jdbcTemplate.query(SELECT_EMAILS_CLAIMED_BETWEEN, resultSet -> {
+            emails.put(resultSet.getString(1), fromBytes(resultSet.getBytes(2)));
+        }, Timestamp.from(from), Timestamp.from(to));
+        return emails;
+    }
+
+    public Optional<UUID> findUserIdByEmail(String email) {
+        return jdbcTemplate.query(SELECT_EMAIL_USER_ID, (resultSet, rowNumber) -> fromBytes(resultSet.getBytes(1)), email)
+                .stream()
+                .findFirst();
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return new HashSet<>(namedJdbcTemplate.queryForList(SELECT_EXISTING_EMAILS,
+                Map.of("emails", emails), String.class));
+    }
+
+    public Map<String, UUID> findEmails() {
+        Map<String, UUID> emails = new HashMap<>();
+        jdbcTemplate.query(SELECT_EMAILS, resultSet -> {
+            emails.put(resultSet.getString(1), fromBytes(resultSet.getBytes(2)));
+        });
+        return emails;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static UserLoginRow loginRow(UUID id, ResultSet resultSet) throws SQLException {
+        long number = resultSet.getLong(7);
+        boolean hasPhone = !resultSet.wasNull();
+        return new UserLoginRow(
+                id,
+                localDateTime(resultSet.getTimestamp(1)),
+                resultSet.getBoolean(2),
+                resultSet.getString(3),
+                resultSet.getString(4),
+                resultSet.getString(5),
+                hasPhone ? number : null,
+                hasPhone ? resultSet.getInt(8) : null,
+                hasPhone ? resultSet.getString(9) : null);
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static LocalDateTime localDateTime(Timestamp value) {
+        return value != null ? value.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.globallogic.technique.repository.sharded;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The shards of the sharded user store and the ring that places keys on them. Shards
+ * are listed by name in {@code users.store.sharded.shards}, each with its own
+ * {@code users.store.sharded.shard.<name>.url}; the ring only depends on the names, so
+ * a shard can move to another URL without moving any data.
+ */
+@Component
+@Profile(ReactiveStack.NOT_PROFILE)
+@ConditionalOnProperty(name = "users.store", havingValue = "sharded")
+public class UserShards {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private static final String SCHEMA = "db/sharded/schema.sql";
+
+    private final List<UserShard> shards;
+    private final ConsistentHashRing<UserShard> ring;
+
+    @Autowired
+    public UserShards(Environment environment,
+                      @Value("${users.store.sharded.shards}") List<String> names,
+                      @Value("${users.store.sharded.virtual-nodes:" + DEFAULT_VIRTUAL_NODES + "}") int virtualNodes) {
+        this(createShards(environment, names), virtualNodes);
+    }
+
+    /**
+     * Creates the schema on every shard when missing.
+     */
+    public UserShards(List<UserShard> shards, int virtualNodes) {
+        Map<String, UserShard> byName = new LinkedHashMap<>();
+        for (UserShard shard : shards) {
+            if (byName.put(shard.getName(), shard) != null) {
+                throw new IllegalArgumentException("Duplicate shard name: " + shard.getName());
+            }
+            new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)).execute(shard.getDataSource());
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.ring = new ConsistentHashRing<>(byName, virtualNodes);
+    }
+
+    public List<UserShard> all() {
+        return shards;
+    }
+
+    /**
+     * The shard holding the user and its phones.
+     */
+    public UserShard forUser(UUID id) {
+        return ring.nodeFor(id);
+    }
+
+    /**
+     * The shard holding the email directory entry.
+     */
+    public UserShard forEmail(String email) {
+        return ring.nodeFor(email);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (UserShard shard : shards) {
+            if (shard.getDataSource() instanceof HikariDataSource) {
+                ((HikariDataSource) shard.getDataSource()).close();
+            }
+        }
+    }
+
+    private static List<UserShard> createShards(Environment environment, List<String> names) {
+        List<UserShard> shards = new ArrayList<>(names.size());
+        for (String name : names) {
+            String prefix = "users.store.sharded.shard." + name + ".";
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(environment.getRequiredProperty(prefix + "url"))
+                    .username(environment.getProperty(prefix + "username", "sa"))
+                    .password(environment.getProperty(prefix + "password", ""))
+                    .build();
+            dataSource.setPoolName("users-" + name);
+            shards.add(new UserShard(name, dataSource));
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,71 @@
+package com.globallogic.technique.service;
+
+import com.globallogic.technique.repository.LastLoginStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects login timestamps in memory, keeping only the latest one per user, and writes
+ * them in one batch on a fixed delay so logins never wait on an UPDATE.
+ */
+@Slf4j
+@Component
+public class LastLoginBuffer {
+
+    private final Map<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final LastLoginStore lastLoginStore;
+
+    public LastLoginBuffer(LastLoginStore lastLoginStore) {
+        this.lastLoginStore = lastLoginStore;
+    }
+
+    public void record(UUID userId, LocalDateTime lastLogin) {
+        pending.merge(userId, lastLogin, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    /**
+     * Drops the pending timestamp of a user that is not going to exist.
+     */
+    void discard(UUID userId) {
+        pending.remove(userId);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${users.last-login.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, LocalDateTime> updates = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            LocalDateTime lastLogin = pending.remove(userId);
+            if (lastLogin != null) {
+                updates.put(userId, lastLogin);
+            }
+        }
+
+        try {
+            lastLoginStore.updateLastLogins(updates);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} last login updates: {}", updates.size(), e.getMessage());
+            updates.forEach(this::record);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+}
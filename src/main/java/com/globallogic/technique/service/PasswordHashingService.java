@@ -0,0 +1,162 @@
+package com.globallogic.technique.service;
+
+import com.globallogic.technique.exception.user.SignUpCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated, bounded executor so bursts of sign-ups cannot
+ * take every servlet thread. Requests beyond the queue capacity are rejected immediately.
+ */
+@Service
+public class PasswordHashingService {
+
+    public static final String CAPACITY_EXCEEDED_MESSAGE = "Too many sign-up requests, try again later";
+
+    private static final SignUpCapacityExceededException CAPACITY_EXCEEDED = new SignUpCapacityExceededException(CAPACITY_EXCEEDED_MESSAGE);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password.hashing.concurrency:0}") int concurrency,
+                                  @Value("${password.hashing.queue-capacity:64}") int queueCapacity) {
+        int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("password.hashing")
+                .description("Time spent hashing a password")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Hash requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Hash requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hash requests currently being processed")
+                .register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        Future<String> result;
+        try {
+            result = submit(rawPassword);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw CAPACITY_EXCEEDED;
+        }
+
+        return await(result);
+    }
+
+    /**
+     * Non-blocking variant of {@link #hash(String)} for the reactive stack: the future
+     * completes on a hashing thread, and a full queue is rejected before submitting.
+     */
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw CAPACITY_EXCEEDED;
+        }
+    }
+
+    /**
+     * Hashes a batch of passwords in parallel. At most one hash per hashing thread is
+     * in flight, so a large batch never fills the queue used by single sign-ups.
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        String[] hashes = new String[rawPasswords.size()];
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        Deque<Integer> inFlightIndexes = new ArrayDeque<>();
+        int maxInFlight = executor.getMaximumPoolSize();
+
+        for (int i = 0; i < rawPasswords.size(); i++) {
+            if (inFlight.size() >= maxInFlight) {
+                hashes[inFlightIndexes.poll()] = await(inFlight.poll());
+            }
+            while (true) {
+                try {
+                    inFlight.add(submit(rawPasswords.get(i)));
+                    inFlightIndexes.add(i);
+                    break;
+                } catch (RejectedExecutionException e) {
+                    if (inFlight.isEmpty()) {
+                        rejectedCounter.increment();
+                        throw CAPACITY_EXCEEDED;
+                    }
+                    hashes[inFlightIndexes.poll()] = await(inFlight.poll());
+                }
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            hashes[inFlightIndexes.poll()] = await(inFlight.poll());
+        }
+        return Arrays.asList(hashes);
+    }
+
+    private Future<String> submit(String rawPassword) {
+        return executor.submit(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    private String await(Future<String> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.globallogic.technique.service;
+
+import com.globallogic.technique.config.CacheConfig;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.UserResponseDto;
+import com.globallogic.technique.dto.response.UserSigUpResponseDto;
+import com.globallogic.technique.model.User;
+import com.globallogic.technique.repository.ReactiveUserRepository;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import com.globallogic.technique.util.UserRequestValidator;
+import com.globallogic.technique.util.UuidV7;
+import com.globallogic.technique.util.mapper.UserMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+import static com.globallogic.technique.util.UserValidation.convertToLoginResponseDTO;
+import static com.globallogic.technique.util.UserValidation.convertToSignUpResponseDTO;
+
+/**
+ * Sign-up and login for the reactive stack. Same rules and responses as
+ * {@link UserService}; hashing runs on the bounded hashing pool and persistence on R2DBC,
+ * so no event loop thread ever blocks.
+ */
+@Service
+@Profile(ReactiveStack.PROFILE)
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserRequestValidator userRequestValidator;
+    private final TokenValidationService tokenValidationService;
+    private final PasswordHashingService passwordHashingService;
+    private final LastLoginBuffer lastLoginBuffer;
+    private final TransactionalOperator transactionalOperator;
+    private final Cache knownEmails;
+    private final Cache users;
+    private final MeterRegistry meterRegistry;
+    private final Timer signUpSucceeded;
+    private final Timer signUpFailed;
+    private final Timer loginSucceeded;
+    private final Timer loginFailed;
+
+    public ReactiveUserService(ReactiveUserRepository userRepository,
+                               UserMapper userMapper,
+                               UserRequestValidator userRequestValidator,
+                               TokenValidationService tokenValidationService,
+                               PasswordHashingService passwordHashingService,
+                               LastLoginBuffer lastLoginBuffer,
+                               ReactiveTransactionManager transactionManager,
+                               CacheManager cacheManager,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.userRequestValidator = userRequestValidator;
+        this.tokenValidationService = tokenValidationService;
+        this.passwordHashingService = passwordHashingService;
+        this.lastLoginBuffer = lastLoginBuffer;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.knownEmails = cacheManager.getCache(CacheConfig.USER_EMAILS_CACHE);
+        this.users = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        this.meterRegistry = meterRegistry;
+        this.signUpSucceeded = UserService.outcomeTimer(meterRegistry, "signup", "success");
+        this.signUpFailed = UserService.outcomeTimer(meterRegistry, "signup", "failure");
+        this.loginSucceeded = UserService.outcomeTimer(meterRegistry, "login", "success");
+        this.loginFailed = UserService.outcomeTimer(meterRegistry, "login", "failure");
+    }
+
+    public Mono<UserSigUpResponseDto> signUp(UserDTO userRequest) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Mono.defer(() -> {
+                    userRequestValidator.validate(userRequest);
+
+                    User user = userMapper.toEntity(userRequest);
+                    if (knownEmails.get(user.getEmail()) != null) {
+                        return Mono.error(UserService.USER_ALREADY_EXISTS);
+                    }
+                    return Mono.fromFuture(passwordHashingService.hashAsync(user.getPassword()))
+                            .flatMap(hash -> {
+                                user.setPassword(hash);
+                                setUserDefaults(user);
+                                return insertNewUser(user);
+                            })
+                            .then(Mono.fromCallable(() ->
+                                    convertToSignUpResponseDTO(user, tokenValidationService.generateJwtToken(user))));
+                })
+                .doOnSuccess(response -> sample.stop(signUpSucceeded))
+                .doOnError(e -> sample.stop(signUpFailed));
+    }
+
+    public Mono<UserResponseDto> login(JwtPrincipal principal) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return findLoginView(principal.getUserId())
+                .switchIfEmpty(Mono.error(UserService.USER_NOT_FOUND))
+                .map(user -> {
+                    LocalDateTime lastLogin = LocalDateTime.now();
+                    lastLoginBuffer.record(user.getId(), lastLogin);
+
+                    String newToken = tokenValidationService.generateJwtToken(user.getId());
+                    return convertToLoginResponseDTO(user, newToken, lastLogin);
+                })
+                .doOnSuccess(response -> sample.stop(loginSucceeded))
+                .doOnError(e -> sample.stop(loginFailed));
+    }
+
+    /**
+     * Same cache entries as {@link UserLoginQueryService}, filled on a miss.
+     */
+    private Mono<UserLoginView> findLoginView(UUID userId) {
+        UserLoginView cached = users.get(userId, UserLoginView.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return userRepository.findLoginView(userId)
+                .doOnNext(view -> users.put(userId, view));
+    }
+
+    /**
+     * As in {@link UserService}, the unique index on email is what detects duplicates.
+     */
+    private Mono<Void> insertNewUser(User user) {
+        return userRepository.insert(user)
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(done -> knownEmails.put(user.getEmail(), Boolean.TRUE))
+                .onErrorMap(this::isEmailConflict, e -> {
+                    knownEmails.put(user.getEmail(), Boolean.TRUE);
+                    return UserService.USER_ALREADY_EXISTS;
+                });
+    }
+
+    private boolean isEmailConflict(Throwable e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(User.EMAIL_UNIQUE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void setUserDefaults(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        user.setId(UuidV7.next());
+        user.setCreated(now);
+        user.setLastLogin(now);
+        user.setActive(true);
+    }
+}
@@ -0,0 +1,176 @@
+package com.globallogic.technique.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.exception.token.InvalidRefreshTokenException;
+import com.globallogic.technique.model.RefreshToken;
+import com.globallogic.technique.repository.RefreshTokenRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. The table holds only token digests; an
+ * in-memory index of recently issued tokens saves the lookup on refresh, so a rotation
+ * costs one DELETE and one INSERT and never reads the user.
+ */
+@Slf4j
+@Service
+@Profile(ReactiveStack.NOT_PROFILE)
+public class RefreshTokenService {
+
+    public static final String INVALID_REFRESH_TOKEN_MESSAGE = "Invalid or expired refresh token";
+
+    private static final InvalidRefreshTokenException INVALID_REFRESH_TOKEN = new InvalidRefreshTokenException(INVALID_REFRESH_TOKEN_MESSAGE);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final ThreadLocal<MessageDigest> TOKEN_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Duration lifetime;
+    private final Cache<String, RefreshToken> index;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh.expiration-ms:1209600000}") long expirationMs,
+                               @Value("${jwt.refresh.index.maximum-size:100000}") long indexMaximumSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.lifetime = Duration.ofMillis(expirationMs);
+        this.index = Caffeine.newBuilder()
+                .maximumSize(indexMaximumSize)
+                .expireAfter(new ExpiresAtRefreshTokenExpiry())
+                .build();
+    }
+
+    /**
+     * @return a new opaque refresh token for the user; only its digest is stored
+     */
+    @Transactional
+    public String issue(UUID userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = BASE64URL.encodeToString(bytes);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(digest(token))
+                .userId(userId)
+                .expiresAt(Instant.now().plus(lifetime))
+                .build();
+        refreshTokenRepository.save(refreshToken);
+        index.put(refreshToken.getTokenHash(), refreshToken);
+        return token;
+    }
+
+    /**
+     * Forgets a token issued in a transaction that was rolled back, whose row never made it
+     * to the table.
+     */
+    void discard(String token) {
+        index.invalidate(digest(token));
+    }
+
+    /**
+     * Consumes the presented refresh token and issues its replacement in the same
+     * transaction. A token that is unknown, expired or already used is rejected.
+     */
+    @Transactional
+    public Rotation rotate(String presentedToken) {
+        if (presentedToken == null || presentedToken.isEmpty()) {
+            throw INVALID_REFRESH_TOKEN;
+        }
+
+        String tokenHash = digest(presentedToken);
+        Instant now = Instant.now();
+        RefreshToken stored = index.asMap().remove(tokenHash);
+        if (stored == null) {
+            stored = refreshTokenRepository.findById(tokenHash).orElse(null);
+        }
+        if (stored == null
+                || !stored.getExpiresAt().isAfter(now)
+                || refreshTokenRepository.deleteUnexpired(tokenHash, now) == 0) {
+            throw INVALID_REFRESH_TOKEN;
+        }
+
+        return new Rotation(stored.getUserId(), issue(stored.getUserId()));
+    }
+
+    /**
+     * Deletes the presented token if it was issued to the user, which ends the session it
+     * belongs to; the user's other sessions keep their tokens. An unknown token, or one
+     * of another user, is left alone.
+     */
+    @Transactional
+    public void revoke(UUID userId, String presentedToken) {
+        if (presentedToken == null || presentedToken.isEmpty()) {
+            return;
+        }
+        String tokenHash = digest(presentedToken);
+        if (refreshTokenRepository.deleteByTokenHashAndUserId(tokenHash, userId) > 0) {
+            index.invalidate(tokenHash);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private static String digest(String token) {
+        return BASE64URL.encodeToString(TOKEN_DIGEST.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Rotation {
+
+        private final UUID userId;
+        private final String refreshToken;
+    }
+
+    /**
+     * Drops every indexed token exactly at its own expiry.
+     */
+    private static class ExpiresAtRefreshTokenExpiry implements Expiry<String, RefreshToken> {
+
+        @Override
+        public long expireAfterCreate(String key, RefreshToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, RefreshToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, RefreshToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.globallogic.technique.service;
+
+import com.globallogic.technique.config.CacheConfig;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.UserSigUpResponseDto;
+import com.globallogic.technique.exception.user.UserNotFoundException;
+import com.globallogic.technique.repository.JpaUserStore;
+import com.globallogic.technique.repository.UserStore;
+import com.globallogic.technique.util.UuidV7;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the sign-up and login code paths before the application reports itself ready,
+ * which Spring Boot only does once every {@link ApplicationRunner} has returned. It opens
+ * every pooled connection and then drives {@link UserService} itself, with the token
+ * verification the authentication filter does before each login, often enough for the
+ * JIT to compile the paths and for the statements to be prepared, so the first requests
+ * do not pay for any of it.
+ * <p>
+ * With the JPA store each warm-up user is signed up and logged in inside a transaction
+ * that is rolled back, and its entries in the caches, the refresh token index and the
+ * last login buffer are dropped afterwards. Each login verifies the token without the
+ * token cache and reads the user through the store. The other stores are not
+ * transactional, so there only logins of an unknown user are run. Warm-up requests are
+ * counted in the sign-up and login metrics like any other.
+ */
+@Slf4j
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final String PASSWORD = "Warmup12abc";
+
+    private final List<HikariDataSource> pools;
+    private final UserService userService;
+    private final UserStore userStore;
+    private final TokenValidationService tokenValidationService;
+    private final RefreshTokenService refreshTokenService;
+    private final LastLoginBuffer lastLoginBuffer;
+    private final Cache users;
+    private final Cache knownEmails;
+    private final TransactionTemplate transactionTemplate;
+    private final int iterations;
+    private final int signUps;
+
+    public StartupWarmUp(List<HikariDataSource> pools,
+                         UserService userService,
+                         UserStore userStore,
+                         TokenValidationService tokenValidationService,
+                         RefreshTokenService refreshTokenService,
+                         LastLoginBuffer lastLoginBuffer,
+                         CacheManager cacheManager,
+                         TransactionTemplate transactionTemplate,
+                         int iterations,
+                         int signUps) {
+        this.pools = pools;
+        this.userService = userService;
+        this.userStore = userStore;
+        this.tokenValidationService = tokenValidationService;
+        this.refreshTokenService = refreshTokenService;
+        this.lastLoginBuffer = lastLoginBuffer;
+        this.users = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        this.knownEmails = cacheManager.getCache(CacheConfig.USER_EMAILS_CACHE);
+        this.transactionTemplate = transactionTemplate;
+        this.iterations = iterations;
+        this.signUps = signUps;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        long start = System.nanoTime();
+        int connections = 0;
+        for (HikariDataSource pool : pools) {
+            connections += openAll(pool);
+        }
+
+        int signedUp = 0;
+        if (userStore instanceof JpaUserStore && signUps > 0) {
+            // every sign-up hashes a password, so the logins are spread over a few users
+            for (; signedUp < signUps; signedUp++) {
+                int logins = iterations / signUps + (signedUp < iterations % signUps ? 1 : 0);
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    signUpAndLogin(logins);
+                });
+            }
+        } else {
+            String token = tokenValidationService.generateJwtToken(UuidV7.next());
+            for (int i = 0; i < iterations; i++) {
+                login(token);
+            }
+        }
+        log.info("Warmed up {} connections, {} sign-ups and {} logins in {} ms",
+                connections, signedUp, iterations, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Holds as many connections as the pool allows at once, so each one is opened now
+     * rather than by a request.
+     */
+    private static int openAll(HikariDataSource pool) throws SQLException {
+        List<Connection> connections = new ArrayList<>(pool.getMaximumPoolSize());
+        try {
+            for (int i = 0; i < pool.getMaximumPoolSize(); i++) {
+                connections.add(pool.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    private void signUpAndLogin(int logins) {
+        UserDTO request = UserDTO.builder()
+                .email("warmup-" + UuidV7.next() + "@example.com")
+                .password(PASSWORD)
+                .build();
+        UserSigUpResponseDto user = userService.signUp(request);
+        try {
+            for (int i = 0; i < logins; i++) {
+                login(user.getToken());
+                users.evict(user.getId());
+            }
+        } finally {
+            knownEmails.evict(request.getEmail());
+            refreshTokenService.discard(user.getRefreshToken());
+            lastLoginBuffer.discard(user.getId());
+        }
+    }
+
+    private void login(String token) {
+        JwtPrincipal principal = tokenValidationService.verifySignature(token).getPrincipal();
+        try {
+            userService.login(principal);
+        } catch (UserNotFoundException expected) {
+            // no user has the id of the warm-up token
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.globallogic.technique.service;
+
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.config.jwt.TokenRevocationList;
+import com.globallogic.technique.model.TokenRevocation;
+import com.globallogic.technique.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Persists token revocations and keeps the in-memory {@link TokenRevocationList} that the
+ * authentication filter checks in sync with the table: it is loaded at startup and
+ * reloaded on a schedule, which also picks up revocations made by other instances.
+ */
+@Slf4j
+@Service
+@Profile(ReactiveStack.NOT_PROFILE)
+public class TokenRevocationService {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final TokenRevocationList revocationList;
+    private final RefreshTokenService refreshTokenService;
+    private final Duration accessTokenLifetime;
+
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository,
+                                  TokenRevocationList revocationList,
+                                  RefreshTokenService refreshTokenService,
+                                  @Value("${jwt.expiration}") long expirationTimeMs) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.revocationList = revocationList;
+        this.refreshTokenService = refreshTokenService;
+        this.accessTokenLifetime = Duration.ofMillis(expirationTimeMs);
+    }
+
+    /**
+     * Ends one session: revokes the presented access token and deletes the session's
+     * refresh token, so neither can be used again. The user's other sessions are not
+     * touched.
+     */
+    @Transactional
+    public void logout(JwtPrincipal principal, String refreshToken) {
+        revokeToken(principal);
+        refreshTokenService.revoke(principal.getUserId(), refreshToken);
+    }
+
+    /**
+     * Revokes the presented access token alone, by its {@code jti}. The user's other access
+     * tokens and refresh tokens stay valid. A token without a {@code jti}, issued before
+     * tokens carried one, cannot be revoked and simply runs until its {@code exp}.
+     */
+    @Transactional
+    public void revokeToken(JwtPrincipal principal) {
+        if (principal.getTokenId() == null) {
+            log.debug("Token of user {} has no jti and is not revoked", principal.getUserId());
+            return;
+        }
+
+        TokenRevocation revocation = TokenRevocation.builder()
+                .tokenId(principal.getTokenId())
+                .userId(principal.getUserId())
+                .expiresAt(principal.getExpiresAt() != null ? principal.getExpiresAt() : Instant.now().plus(accessTokenLifetime))
+                .build();
+        tokenRevocationRepository.save(revocation);
+        revocationList.revoke(toRevocation(revocation));
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${jwt.revocation.reload-interval-ms:30000}",
+            fixedDelayString = "${jwt.revocation.reload-interval-ms:30000}")
+    public void reload() {
+        Instant now = Instant.now();
+        tokenRevocationRepository.deleteExpired(now);
+        List<TokenRevocationList.Revocation> revocations = tokenRevocationRepository.findByExpiresAtAfter(now).stream()
+                .map(TokenRevocationService::toRevocation)
+                .collect(Collectors.toList());
+
+        revocationList.purgeExpired(now);
+        revocationList.revokeAll(revocations);
+        log.debug("Loaded {} token revocations", revocations.size());
+    }
+
+    private static TokenRevocationList.Revocation toRevocation(TokenRevocation revocation) {
+        return new TokenRevocationList.Revocation(revocation.getTokenId(), revocation.getExpiresAt());
+    }
+}
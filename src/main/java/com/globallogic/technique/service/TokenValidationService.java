@@ -1,68 +1,233 @@
 package com.globallogic.technique.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.globallogic.technique.config.jwt.Hs256TokenVerifier;
+import com.globallogic.technique.config.jwt.JjwtTokenVerifier;
+import com.globallogic.technique.config.jwt.JwtKeyRing;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.config.jwt.JwtSigningAlgorithm;
+import com.globallogic.technique.config.jwt.JwtVerifierMode;
+import com.globallogic.technique.config.jwt.TokenRevocationList;
+import com.globallogic.technique.config.jwt.TokenVerification;
+import com.globallogic.technique.config.jwt.TokenVerifier;
 import com.globallogic.technique.model.User;
-import io.jsonwebtoken.JwtException;
+import com.globallogic.technique.util.UuidV7;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
-@Slf4j
 @Service
 public class TokenValidationService {
 
+    public static final long DEFAULT_CACHE_MAXIMUM_SIZE = 10_000;
+
+    private static final ThreadLocal<MessageDigest> TOKEN_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
     private final SecretKey secretKey;
+    private final JwtKeyRing keyRing;
     private final long expirationTimeMs;
+    private final TokenVerifier tokenVerifier;
+    private final TokenRevocationList revocationList;
+    private final Cache<ByteBuffer, TokenVerification> verifiedTokens;
+
+    public TokenValidationService(String secretKeyString, long expirationTimeMs) {
+        this(secretKeyString, expirationTimeMs, DEFAULT_CACHE_MAXIMUM_SIZE, JwtVerifierMode.JJWT);
+    }
 
+    public TokenValidationService(String secretKeyString, long expirationTimeMs, long cacheMaximumSize, JwtVerifierMode verifierMode) {
+        this(secretKeyString, expirationTimeMs, cacheMaximumSize, verifierMode, null);
+    }
+
+    @Autowired
     public TokenValidationService(@Value("${jwt.secret}") String secretKeyString,
-                                  @Value("${jwt.expiration}") long expirationTimeMs) {
+                                  @Value("${jwt.expiration}") long expirationTimeMs,
+                                  @Value("${jwt.cache.maximum-size:" + DEFAULT_CACHE_MAXIMUM_SIZE + "}") long cacheMaximumSize,
+                                  @Value("${jwt.verifier:jjwt}") JwtVerifierMode verifierMode,
+                                  @Value("${jwt.signing-algorithm:hs256}") JwtSigningAlgorithm signingAlgorithm,
+                                  ObjectProvider<JwtKeyRing> keyRing,
+                                  TokenRevocationList revocationList) {
+        this(secretKeyString, expirationTimeMs, cacheMaximumSize, verifierMode,
+                signingAlgorithm == JwtSigningAlgorithm.ES256 ? keyRing.getObject() : null, revocationList);
+    }
+
+    public TokenValidationService(String secretKeyString, long expirationTimeMs, long cacheMaximumSize,
+                                  JwtVerifierMode verifierMode, JwtKeyRing keyRing) {
+        this(secretKeyString, expirationTimeMs, cacheMaximumSize, verifierMode, keyRing,
+                new TokenRevocationList(TokenRevocationList.DEFAULT_EXPECTED_REVOCATIONS));
+    }
+
+    /**
+     * With a key ring, tokens are signed with its active ES256 key and verified by
+     * {@code kid}; {@code jwt.secret} and the verifier mode are then unused.
+     */
+    public TokenValidationService(String secretKeyString, long expirationTimeMs, long cacheMaximumSize,
+                                  JwtVerifierMode verifierMode, JwtKeyRing keyRing, TokenRevocationList revocationList) {
         this.secretKey = Keys.hmacShaKeyFor(secretKeyString.getBytes());
+        this.keyRing = keyRing;
         this.expirationTimeMs = expirationTimeMs;
+        this.revocationList = revocationList;
+
+        if (keyRing != null) {
+            this.tokenVerifier = new JjwtTokenVerifier(keyRing.verificationKeyResolver());
+        } else {
+            TokenVerifier jjwtVerifier = new JjwtTokenVerifier(secretKey);
+            this.tokenVerifier = verifierMode == JwtVerifierMode.HS256
+                    ? new Hs256TokenVerifier(secretKey, jjwtVerifier)
+                    : jjwtVerifier;
+        }
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new ExpiresAtTokenExpiry())
+                .recordStats()
+                .build();
     }
 
     public String generateJwtToken(User user) {
-        return Jwts.builder()
-                .setSubject(user.getId().toString())
+        return generateJwtToken(user.getId());
+    }
+
+    /**
+     * Every token gets its own {@code jti}, so a logout can revoke it alone.
+     */
+    public String generateJwtToken(UUID userId) {
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(userId.toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTimeMs))
-                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .setId(UuidV7.next().toString());
+        if (keyRing == null) {
+            return builder.signWith(secretKey, SignatureAlgorithm.HS256).compact();
+        }
+
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+        return builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
+                .signWith(signingKey.getPrivateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
-    public boolean validateJwtToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            log.error("Invalid or expired token: " + e.getMessage());
-            return false;
+    /**
+     * Verifies the token once and returns its claims, or empty when the token is
+     * missing, tampered with or expired.
+     */
+    public Optional<JwtPrincipal> parseJwtToken(String token) {
+        return Optional.ofNullable(verifyJwtToken(token).getPrincipal());
+    }
+
+    /**
+     * Verifies the token and tells a missing, forged, expired or revoked token apart.
+     * Successfully verified tokens are cached by digest until their {@code exp}, so repeat
+     * calls skip the signature check; revocation is checked on every call, cached or not.
+     */
+    public TokenVerification verifyJwtToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return TokenVerification.MISSING;
+        }
+
+        ByteBuffer key = digest(token);
+        TokenVerification cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (isExpired(cached.getPrincipal())) {
+                return TokenVerification.EXPIRED;
+            }
+            return revocationList.isRevoked(cached.getPrincipal()) ? TokenVerification.REVOKED : cached;
         }
+
+        TokenVerification verification = verifySignature(token);
+        if (!verification.isValid()) {
+            return verification;
+        }
+        JwtPrincipal principal = verification.getPrincipal();
+        if (principal.getExpiresAt() != null) {
+            verifiedTokens.put(key, verification);
+        }
+        return revocationList.isRevoked(principal) ? TokenVerification.REVOKED : verification;
+    }
+
+    /**
+     * The uncached part of {@link #verifyJwtToken}: checks the signature and the expiry,
+     * without consulting or filling the cache and without the revocation check.
+     */
+    TokenVerification verifySignature(String token) {
+        JwtPrincipal principal = tokenVerifier.verify(token);
+        if (principal == null) {
+            return TokenVerification.INVALID;
+        }
+        if (isExpired(principal)) {
+            return TokenVerification.EXPIRED;
+        }
+        return TokenVerification.valid(principal);
+    }
+
+    public CacheStats tokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    public boolean validateJwtToken(String token) {
+        return parseJwtToken(token).isPresent();
     }
-    
 
     public String getUserId(String token) {
         if (token == null || !token.startsWith("Bearer ")) {
             throw new IllegalArgumentException("Invalid or null token");
         }
 
-        String userToken = token.substring(7);
+        return parseJwtToken(token.substring(7))
+                .map(principal -> principal.getUserId().toString())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid token"));
+    }
 
-        try {
-            return Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .parseClaimsJws(userToken)
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
-            throw new IllegalArgumentException("Invalid token", e);
+    private static boolean isExpired(JwtPrincipal principal) {
+        return principal.getExpiresAt() != null && Instant.now().isAfter(principal.getExpiresAt());
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(TOKEN_DIGEST.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Expires every cached token exactly at its own {@code exp} claim.
+     */
+    private static class ExpiresAtTokenExpiry implements Expiry<ByteBuffer, TokenVerification> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, TokenVerification verification, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), verification.getPrincipal().getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, TokenVerification verification, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verification, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, TokenVerification verification, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
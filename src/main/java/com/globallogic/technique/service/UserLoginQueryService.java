@@ -0,0 +1,89 @@
+package com.globallogic.technique.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.globallogic.technique.config.CacheConfig;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.datasource.ReplicaRouting;
+import com.globallogic.technique.repository.UserStore;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves the login read model from the users cache, falling back to the user store: a
+ * single projection query with JPA, an index lookup with the file store. A cache hit
+ * never touches either.
+ * <p>
+ * With {@code users.replica.enabled} a cache miss is read from the replica, except for
+ * users written within {@code users.replica.read-your-writes-window-ms}, such as a login
+ * right after sign-up, which stay on the primary. A user the replica does not have yet
+ * is looked up again on the primary.
+ */
+@Service
+@Profile(ReactiveStack.NOT_PROFILE)
+public class UserLoginQueryService {
+
+    private final UserStore userStore;
+    private final Cache<UUID, Boolean> recentWrites;
+    private final Counter replicaReads;
+    private final Counter recentWriteReads;
+    private final Counter replicaMissReads;
+
+    public UserLoginQueryService(UserStore userStore,
+                                 @Value("${users.replica.enabled:false}") boolean replicaEnabled,
+                                 @Value("${users.replica.read-your-writes-window-ms:5000}") long readYourWritesWindowMs,
+                                 MeterRegistry meterRegistry) {
+        this.userStore = userStore;
+        this.recentWrites = replicaEnabled
+                ? Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(readYourWritesWindowMs)).build()
+                : null;
+        this.replicaReads = readCounter(meterRegistry, "replica", "read");
+        this.recentWriteReads = readCounter(meterRegistry, "primary", "recent-write");
+        this.replicaMissReads = readCounter(meterRegistry, "primary", "replica-miss");
+    }
+
+    /**
+     * Keeps the user's reads on the primary until the replica has caught up with this write.
+     */
+    public void recordWrite(UUID userId) {
+        if (recentWrites != null) {
+            recentWrites.put(userId, Boolean.TRUE);
+        }
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, unless = "#result == null")
+    public Optional<UserLoginView> findLoginView(UUID userId) {
+        if (recentWrites == null) {
+            return userStore.findLoginView(userId);
+        }
+        if (recentWrites.getIfPresent(userId) != null) {
+            recentWriteReads.increment();
+            return userStore.findLoginView(userId);
+        }
+
+        Optional<UserLoginView> view = ReplicaRouting.onReplica(() -> userStore.findLoginView(userId));
+        if (view.isPresent()) {
+            replicaReads.increment();
+            return view;
+        }
+        replicaMissReads.increment();
+        return userStore.findLoginView(userId);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String source, String reason) {
+        return Counter.builder("users.login.reads")
+                .description("Login read model lookups that missed the cache, by where they were served")
+                .tag("source", source)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -1,90 +1,370 @@
 package com.globallogic.technique.service;
 
 
+import com.globallogic.technique.config.CacheConfig;
+import com.globallogic.technique.config.ReactiveStack;
+import com.globallogic.technique.config.jwt.JwtPrincipal;
+import com.globallogic.technique.dto.request.TokenRefreshRequestDto;
 import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.dto.response.BatchSignUpResultDto;
+import com.globallogic.technique.dto.response.TokenRefreshResponseDto;
 import com.globallogic.technique.dto.response.UserResponseDto;
 import com.globallogic.technique.dto.response.UserSigUpResponseDto;
-import com.globallogic.technique.exception.user.InvalidEmailFormatException;
-import com.globallogic.technique.exception.user.InvalidPasswordFormatException;
+import com.globallogic.technique.exception.user.SignUpCapacityExceededException;
 import com.globallogic.technique.exception.user.UserAlreadyExistsException;
 import com.globallogic.technique.exception.user.UserNotFoundException;
 import com.globallogic.technique.model.User;
-import com.globallogic.technique.repository.UserRepository;
+import com.globallogic.technique.repository.UserStore;
+import com.globallogic.technique.repository.projection.UserLoginView;
+import com.globallogic.technique.util.UserRequestValidator;
 import com.globallogic.technique.util.mapper.UserMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.globallogic.technique.util.UserValidation.convertToLoginResponseDTO;
 import static com.globallogic.technique.util.UserValidation.convertToSignUpResponseDTO;
-import static com.globallogic.technique.util.UserValidation.isValidEmail;
-import static com.globallogic.technique.util.UserValidation.isValidPassword;
 
 
 @Service
+@Profile(ReactiveStack.NOT_PROFILE)
 public class UserService {
 
+    public static final String USER_ALREADY_EXISTS_MESSAGE = "User already exist";
+    public static final String USER_NOT_FOUND_MESSAGE = "User not found";
+
+    static final UserAlreadyExistsException USER_ALREADY_EXISTS = new UserAlreadyExistsException(USER_ALREADY_EXISTS_MESSAGE);
+    static final UserNotFoundException USER_NOT_FOUND = new UserNotFoundException(USER_NOT_FOUND_MESSAGE);
+
+    public static final String UNREADABLE_REQUEST_MESSAGE = "Invalid JSON";
+
+    static final int BATCH_CHUNK_SIZE = 500;
+
+    private static final UserDTO END_OF_REQUESTS = new UserDTO();
+    private static final UserDTO UNREADABLE_REQUEST = new UserDTO();
+
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
-    private final UserRepository userRepository;
+    private final UserRequestValidator userRequestValidator;
+    private final PasswordHashingService passwordHashingService;
+    private final UserStore userStore;
     private final TokenValidationService tokenValidationService;
+    private final UserLoginQueryService userLoginQueryService;
+    private final LastLoginBuffer lastLoginBuffer;
+    private final RefreshTokenService refreshTokenService;
+    private final Cache knownEmails;
+    private final MeterRegistry meterRegistry;
+    private final Timer signUpSucceeded;
+    private final Timer signUpFailed;
+    private final Timer signUpValidateStage;
+    private final Timer signUpHashStage;
+    private final Timer signUpPersistStage;
+    private final Timer signUpSignStage;
+    private final Timer signUpRefreshStage;
+    private final Timer loginSucceeded;
+    private final Timer loginFailed;
+    private final Timer loginLoadStage;
+    private final Timer loginSignStage;
+    private final Timer refreshSucceeded;
+    private final Timer refreshFailed;
+    private final int batchMaxItems;
+    private final String batchTooLargeMessage;
 
-    public UserService(UserRepository userRepository,
+    public UserService(UserStore userStore,
                        UserMapper userMapper,
+                       UserRequestValidator userRequestValidator,
                        TokenValidationService tokenValidationService,
-                       PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
+                       PasswordHashingService passwordHashingService,
+                       UserLoginQueryService userLoginQueryService,
+                       LastLoginBuffer lastLoginBuffer,
+                       RefreshTokenService refreshTokenService,
+                       CacheManager cacheManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${users.batch.max-items:1000}") int batchMaxItems) {
+        this.userStore = userStore;
         this.userMapper = userMapper;
+        this.userRequestValidator = userRequestValidator;
         this.tokenValidationService = tokenValidationService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userLoginQueryService = userLoginQueryService;
+        this.lastLoginBuffer = lastLoginBuffer;
+        this.refreshTokenService = refreshTokenService;
+        this.knownEmails = cacheManager.getCache(CacheConfig.USER_EMAILS_CACHE);
+        this.meterRegistry = meterRegistry;
+        this.signUpSucceeded = outcomeTimer(meterRegistry, "signup", "success");
+        this.signUpFailed = outcomeTimer(meterRegistry, "signup", "failure");
+        this.signUpValidateStage = stageTimer(meterRegistry, "signup", "validate");
+        this.signUpHashStage = stageTimer(meterRegistry, "signup", "hash");
+        this.signUpPersistStage = stageTimer(meterRegistry, "signup", "persist");
+        this.signUpSignStage = stageTimer(meterRegistry, "signup", "sign");
+        this.signUpRefreshStage = stageTimer(meterRegistry, "signup", "refresh");
+        this.loginSucceeded = outcomeTimer(meterRegistry, "login", "success");
+        this.loginFailed = outcomeTimer(meterRegistry, "login", "failure");
+        this.loginLoadStage = stageTimer(meterRegistry, "login", "load");
+        this.loginSignStage = stageTimer(meterRegistry, "login", "sign");
+        this.refreshSucceeded = outcomeTimer(meterRegistry, "token.refresh", "success");
+        this.refreshFailed = outcomeTimer(meterRegistry, "token.refresh", "failure");
+        this.batchMaxItems = batchMaxItems;
+        this.batchTooLargeMessage = "A batch sign-up accepts at most " + batchMaxItems + " users";
     }
 
     public UserSigUpResponseDto signUp(UserDTO userRequest) {
-        User user = userMapper.toEntity(userRequest);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer outcome = signUpFailed;
+        try {
+            signUpValidateStage.record(() -> userRequestValidator.validate(userRequest));
 
-        validateUserData(user);
-        user.setPassword(hashPassword(user.getPassword()));
-        setUserDefaults(user);
+            User user = userMapper.toEntity(userRequest);
+            if (knownEmails.get(user.getEmail()) != null) {
+                throw USER_ALREADY_EXISTS;
+            }
+            user.setPassword(signUpHashStage.record(() -> hashPassword(user.getPassword())));
+            setUserDefaults(user);
 
-        userRepository.save(user);
+            signUpPersistStage.record(() -> saveNewUser(user));
 
-        String token = generateUserToken(user);
-        return convertToSignUpResponseDTO(user, token);
+            String token = signUpSignStage.record(() -> generateUserToken(user));
+            String refreshToken = signUpRefreshStage.record(() -> refreshTokenService.issue(user.getId()));
+            outcome = signUpSucceeded;
+
+            UserSigUpResponseDto response = convertToSignUpResponseDTO(user, token);
+            response.setRefreshToken(refreshToken);
+            return response;
+        } finally {
+            sample.stop(outcome);
+        }
     }
 
-    public UserResponseDto login(String token) {
-        String userId = tokenValidationService.getUserId(token);
+    /**
+     * Signs up many users at once: the items are read while they are signed up,
+     * {@value #BATCH_CHUNK_SIZE} at a time, so only one chunk of requests is held at once.
+     * Every item is validated, existing emails are found with one query per chunk,
+     * passwords are hashed in parallel and the new users are inserted with JDBC batching.
+     * Each item gets its own result, in request order. Reading stops at the first item it
+     * cannot parse, answered with a 400 result, or at the first item past
+     * {@code users.batch.max-items}, answered with a 413 result; the items before it are
+     * signed up.
+     */
+    public List<BatchSignUpResultDto> signUpBatchStream(Iterator<UserDTO> userRequests) {
+        List<BatchSignUpResultDto> results = new ArrayList<>();
+        Set<String> requestedEmails = new HashSet<>();
+        List<UserDTO> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+
+        while (true) {
+            UserDTO userRequest = nextRequest(userRequests);
+            if (userRequest == END_OF_REQUESTS) {
+                break;
+            }
+            int index = results.size() + chunk.size();
+            if (userRequest == UNREADABLE_REQUEST || index == batchMaxItems) {
+                signUpChunk(chunk, requestedEmails, results);
+                results.add(userRequest == UNREADABLE_REQUEST
+                        ? failedResult(index, null, HttpStatus.BAD_REQUEST, UNREADABLE_REQUEST_MESSAGE)
+                        : failedResult(index, null, HttpStatus.PAYLOAD_TOO_LARGE, batchTooLargeMessage));
+                return results;
+            }
+
+            chunk.add(userRequest);
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                signUpChunk(chunk, requestedEmails, results);
+                chunk.clear();
+            }
+        }
+        signUpChunk(chunk, requestedEmails, results);
+        return results;
+    }
 
-        User user = userRepository.findById(UUID.fromString(userId))
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    public UserResponseDto login(JwtPrincipal principal) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer outcome = loginFailed;
+        try {
+            UserLoginView user = loginLoadStage.record(() -> userLoginQueryService.findLoginView(principal.getUserId()))
+                    .orElseThrow(() -> USER_NOT_FOUND);
 
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+            LocalDateTime lastLogin = LocalDateTime.now();
+            lastLoginBuffer.record(user.getId(), lastLogin);
 
-        String newToken = generateUserToken(user);
+            String newToken = loginSignStage.record(() -> tokenValidationService.generateJwtToken(user.getId()));
 
-        return convertToLoginResponseDTO(user, newToken);
+            outcome = loginSucceeded;
+            return convertToLoginResponseDTO(user, newToken, lastLogin);
+        } finally {
+            sample.stop(outcome);
+        }
     }
 
-    private void validateUserData(User user) {
-        if (!isValidEmail(user.getEmail())) {
-            throw new InvalidEmailFormatException("Email format is invalid: " + user.getEmail());
+    /**
+     * Trades a refresh token for a new access token and a new refresh token. Neither the
+     * user nor its phones are read, so clients can keep short-lived access tokens without
+     * calling login again.
+     */
+    public TokenRefreshResponseDto refreshToken(TokenRefreshRequestDto request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer outcome = refreshFailed;
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request != null ? request.getRefreshToken() : null);
+            String token = tokenValidationService.generateJwtToken(rotation.getUserId());
+
+            outcome = refreshSucceeded;
+            return TokenRefreshResponseDto.builder()
+                    .token(token)
+                    .refreshToken(rotation.getRefreshToken())
+                    .build();
+        } finally {
+            sample.stop(outcome);
         }
+    }
+
+    /**
+     * Appends the results of one chunk of requests to {@code results}.
+     */
+    private void signUpChunk(List<UserDTO> userRequests, Set<String> requestedEmails, List<BatchSignUpResultDto> results) {
+        List<Integer> indexes = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (UserDTO userRequest : userRequests) {
+            int index = results.size();
+            results.add(null);
+            if (userRequest == null) {
+                results.set(index, failedResult(index, null, HttpStatus.BAD_REQUEST, "Invalid validation"));
+                continue;
+            }
 
-        if (!isValidPassword(user.getPassword())) {
-            throw new InvalidPasswordFormatException("Password format is invalid: must contain exactly 1 uppercase letter, 2 digits, only lowercase letters, and be 8–12 characters long.");
+            String error = userRequestValidator.firstViolation(userRequest);
+            if (error != null) {
+                results.set(index, failedResult(index, userRequest.getEmail(), HttpStatus.BAD_REQUEST, error));
+            } else if (!requestedEmails.add(userRequest.getEmail())) {
+                results.set(index, failedResult(index, userRequest.getEmail(), HttpStatus.CONFLICT, USER_ALREADY_EXISTS_MESSAGE));
+            } else {
+                indexes.add(index);
+                users.add(userMapper.toEntity(userRequest));
+            }
         }
+        if (!users.isEmpty()) {
+            signUpUsers(indexes, users, results);
+        }
+    }
+
+    private void signUpUsers(List<Integer> indexes, List<User> users, List<BatchSignUpResultDto> results) {
+        Set<String> existingEmails = userStore.findExistingEmails(
+                users.stream().map(User::getEmail).collect(Collectors.toList()));
 
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new UserAlreadyExistsException("User already exist");
+        List<Integer> newIndexes = new ArrayList<>();
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (existingEmails.contains(user.getEmail())) {
+                knownEmails.put(user.getEmail(), Boolean.TRUE);
+                results.set(indexes.get(i), failedResult(indexes.get(i), user.getEmail(), HttpStatus.CONFLICT, USER_ALREADY_EXISTS_MESSAGE));
+            } else {
+                newIndexes.add(indexes.get(i));
+                newUsers.add(user);
+            }
+        }
+        if (newUsers.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes;
+        try {
+            hashes = passwordHashingService.hashAll(
+                    newUsers.stream().map(User::getPassword).collect(Collectors.toList()));
+        } catch (SignUpCapacityExceededException e) {
+            for (int i = 0; i < newUsers.size(); i++) {
+                results.set(newIndexes.get(i), failedResult(newIndexes.get(i), newUsers.get(i).getEmail(), HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+            }
+            return;
+        }
+
+        for (int i = 0; i < newUsers.size(); i++) {
+            newUsers.get(i).setPassword(hashes.get(i));
+            setUserDefaults(newUsers.get(i));
+        }
+
+        try {
+            userStore.insertAll(newUsers);
+            for (int i = 0; i < newUsers.size(); i++) {
+                knownEmails.put(newUsers.get(i).getEmail(), Boolean.TRUE);
+                userLoginQueryService.recordWrite(newUsers.get(i).getId());
+                results.set(newIndexes.get(i), createdResult(newIndexes.get(i), newUsers.get(i)));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent sign-up took one of the emails; retry one by one to find it.
+            for (int i = 0; i < newUsers.size(); i++) {
+                User user = newUsers.get(i);
+                user.setId(null);
+                try {
+                    saveNewUser(user);
+                    results.set(newIndexes.get(i), createdResult(newIndexes.get(i), user));
+                } catch (UserAlreadyExistsException conflict) {
+                    results.set(newIndexes.get(i), failedResult(newIndexes.get(i), user.getEmail(), HttpStatus.CONFLICT, conflict.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the next request, {@code END_OF_REQUESTS} when there is none, or
+     * {@code UNREADABLE_REQUEST} when the next one cannot be read
+     */
+    private static UserDTO nextRequest(Iterator<UserDTO> userRequests) {
+        try {
+            return userRequests.hasNext() ? userRequests.next() : END_OF_REQUESTS;
+        } catch (RuntimeException e) {
+            return UNREADABLE_REQUEST;
+        }
+    }
+
+    private BatchSignUpResultDto createdResult(int index, User user) {
+        return BatchSignUpResultDto.builder()
+                .index(index)
+                .code(HttpStatus.OK.value())
+                .email(user.getEmail())
+                .user(convertToSignUpResponseDTO(user, generateUserToken(user)))
+                .build();
+    }
+
+    private BatchSignUpResultDto failedResult(int index, String email, HttpStatus status, String detail) {
+        return BatchSignUpResultDto.builder()
+                .index(index)
+                .code(status.value())
+                .email(email)
+                .detail(detail)
+                .build();
+    }
+
+    /**
+     * Inserts the user without a prior lookup; the store is what detects duplicates, so
+     * the check holds even for concurrent sign-ups. Emails seen here are remembered so
+     * retries of a taken email are rejected before hashing.
+     */
+    private void saveNewUser(User user) {
+        try {
+            userStore.insert(user);
+            knownEmails.put(user.getEmail(), Boolean.TRUE);
+            userLoginQueryService.recordWrite(user.getId());
+        } catch (DuplicateKeyException e) {
+            knownEmails.put(user.getEmail(), Boolean.TRUE);
+            throw USER_ALREADY_EXISTS;
         }
     }
 
     private String hashPassword(String rawPassword) {
-        return passwordEncoder.encode(rawPassword);
+        return passwordHashingService.hash(rawPassword);
     }
 
     private void setUserDefaults(User user) {
@@ -94,6 +374,20 @@ public class UserService {
         user.setActive(true);
     }
 
+    static Timer outcomeTimer(MeterRegistry meterRegistry, String operation, String outcome) {
+        return Timer.builder("users." + operation)
+                .description("Duration of a " + operation + " request")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String operation, String stage) {
+        return Timer.builder("users." + operation + ".stage")
+                .description("Time spent in one stage of a " + operation + " request")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
     private String generateUserToken(User user) {
         return tokenValidationService.generateJwtToken(user);
     }
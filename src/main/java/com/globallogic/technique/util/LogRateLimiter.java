@@ -0,0 +1,41 @@
+package com.globallogic.technique.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most one log statement through per interval and counts the ones it drops, so a
+ * flood of identical failures costs a couple of atomic operations each instead of a log
+ * line with a stack trace.
+ */
+public final class LogRateLimiter {
+
+    private final long intervalNanos;
+    private final AtomicLong nextAllowed;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogRateLimiter(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextAllowed = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return whether the caller may log now; otherwise the statement is counted as suppressed
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        long allowedAt = nextAllowed.get();
+        if (now - allowedAt >= 0 && nextAllowed.compareAndSet(allowedAt, now + intervalNanos)) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return the number of statements suppressed since the previous call
+     */
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,27 @@
+package com.globallogic.technique.util;
+
+import java.util.UUID;
+
+/**
+ * The 64-bit finalizer of MurmurHash3. Every input bit affects every output bit, so keys
+ * that differ in a few bits, such as time-ordered ids or sequential emails, spread evenly
+ * once mixed instead of clustering.
+ */
+public final class Murmur3 {
+
+    private Murmur3() {
+    }
+
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+}
@@ -0,0 +1,180 @@
+package com.globallogic.technique.util;
+
+import com.globallogic.technique.dto.request.UserDTO;
+import com.globallogic.technique.exception.user.InvalidEmailFormatException;
+import com.globallogic.technique.exception.user.InvalidPasswordFormatException;
+import com.globallogic.technique.exception.user.MissingRequiredFieldException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates a sign-up request in a single pass over its fields, in the order the API has
+ * always reported them: required email, required password, email format, password format.
+ * <p>
+ * The email rule is a hand-written scanner equivalent to {@code ^[\w.-]+@[\w.-]+\.[a-zA-Z]{2,6}$},
+ * and neither scanner allocates. Failures with a fixed message throw a preallocated
+ * exception; only an invalid email builds one, since its message carries the address.
+ */
+@Component
+public class UserRequestValidator {
+
+    public static final String EMAIL_REQUIRED_MESSAGE = "email cannot be empty";
+    public static final String PASSWORD_REQUIRED_MESSAGE = "password cannot be empty";
+    public static final String EMAIL_FORMAT_MESSAGE = "Email format is invalid: ";
+    public static final String PASSWORD_FORMAT_MESSAGE = "Password format is invalid: must contain exactly 1 uppercase letter, 2 digits, only lowercase letters, and be 8–12 characters long.";
+
+    private static final MissingRequiredFieldException EMAIL_REQUIRED = new MissingRequiredFieldException(EMAIL_REQUIRED_MESSAGE);
+    private static final MissingRequiredFieldException PASSWORD_REQUIRED = new MissingRequiredFieldException(PASSWORD_REQUIRED_MESSAGE);
+    private static final InvalidPasswordFormatException PASSWORD_FORMAT = new InvalidPasswordFormatException(PASSWORD_FORMAT_MESSAGE);
+
+    private static final int MIN_TLD_LENGTH = 2;
+    private static final int MAX_TLD_LENGTH = 6;
+    private static final int MIN_PASSWORD_LENGTH = 8;
+    private static final int MAX_PASSWORD_LENGTH = 12;
+
+    private static final boolean[] EMAIL_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            EMAIL_CHARS[c] = true;
+            EMAIL_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            EMAIL_CHARS[c] = true;
+        }
+        EMAIL_CHARS['_'] = true;
+        EMAIL_CHARS['.'] = true;
+        EMAIL_CHARS['-'] = true;
+    }
+
+    enum Violation {
+        NONE, EMAIL_REQUIRED, PASSWORD_REQUIRED, EMAIL_FORMAT, PASSWORD_FORMAT
+    }
+
+    /**
+     * Throws the exception mapped to the first rule the request breaks.
+     */
+    public void validate(UserDTO request) {
+        switch (check(request)) {
+            case EMAIL_REQUIRED:
+                throw EMAIL_REQUIRED;
+            case PASSWORD_REQUIRED:
+                throw PASSWORD_REQUIRED;
+            case EMAIL_FORMAT:
+                throw new InvalidEmailFormatException(EMAIL_FORMAT_MESSAGE + request.getEmail());
+            case PASSWORD_FORMAT:
+                throw PASSWORD_FORMAT;
+            default:
+        }
+    }
+
+    /**
+     * Returns the message of the first rule the request breaks, or null when it is valid.
+     */
+    public String firstViolation(UserDTO request) {
+        switch (check(request)) {
+            case EMAIL_REQUIRED:
+                return EMAIL_REQUIRED_MESSAGE;
+            case PASSWORD_REQUIRED:
+                return PASSWORD_REQUIRED_MESSAGE;
+            case EMAIL_FORMAT:
+                return EMAIL_FORMAT_MESSAGE + request.getEmail();
+            case PASSWORD_FORMAT:
+                return PASSWORD_FORMAT_MESSAGE;
+            default:
+                return null;
+        }
+    }
+
+    Violation check(UserDTO request) {
+        if (request == null || isBlank(request.getEmail())) {
+            return Violation.EMAIL_REQUIRED;
+        }
+        if (isBlank(request.getPassword())) {
+            return Violation.PASSWORD_REQUIRED;
+        }
+        if (!isValidEmail(request.getEmail())) {
+            return Violation.EMAIL_FORMAT;
+        }
+        if (!isValidPassword(request.getPassword())) {
+            return Violation.PASSWORD_FORMAT;
+        }
+        return Violation.NONE;
+    }
+
+    public static boolean isValidEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+
+        int length = email.length();
+        int at = -1;
+        int lastDomainDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (c >= 128 || !EMAIL_CHARS[c]) {
+                return false;
+            } else if (c == '.' && at >= 0) {
+                lastDomainDot = i;
+            }
+        }
+
+        // Local part and the domain before the last dot must both be non-empty.
+        if (at <= 0 || lastDomainDot <= at + 1) {
+            return false;
+        }
+
+        int tldLength = length - lastDomainDot - 1;
+        if (tldLength < MIN_TLD_LENGTH || tldLength > MAX_TLD_LENGTH) {
+            return false;
+        }
+        for (int i = lastDomainDot + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isValidPassword(String password) {
+        if (password == null || password.length() < MIN_PASSWORD_LENGTH || password.length() > MAX_PASSWORD_LENGTH) {
+            return false;
+        }
+
+        int uppercaseCount = 0;
+        int digitCount = 0;
+
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (Character.isUpperCase(c)) {
+                uppercaseCount++;
+            } else if (Character.isDigit(c)) {
+                digitCount++;
+            } else if (!Character.isLowerCase(c)) {
+                return false;
+            }
+        }
+
+        return uppercaseCount == 1 && digitCount == 2;
+    }
+
+    /**
+     * Same notion of blank as {@code @NotBlank}: null, or only characters trimmed by {@link String#trim()}.
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package com.globallogic.technique.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * The 16 byte form of a UUID stored in the binary id columns: the most significant bits
+ * first, both halves big-endian, the same layout Hibernate uses for the JPA store. A
+ * version 7 id keeps its time order in this form.
+ */
+public final class UuidBytes {
+
+    public static final int LENGTH = 16;
+
+    private UuidBytes() {
+    }
+
+    public static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(LENGTH)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
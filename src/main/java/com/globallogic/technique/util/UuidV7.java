@@ -0,0 +1,62 @@
+package com.globallogic.technique.util;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): the first 48 bits are the Unix time in
+ * milliseconds, the rest is random. Ids created close together are close in the primary
+ * key index, so inserts append to its right edge instead of splitting pages all over it.
+ * <p>
+ * Ids from one node are strictly increasing. The 12 bits after the version are a counter
+ * that starts at a random value below 2048 in every millisecond and is incremented for
+ * each id of the same millisecond; when it overflows, or the clock goes back, the ids
+ * carry on from the last timestamp used, so they run slightly ahead of the clock rather
+ * than out of order.
+ */
+public final class UuidV7 {
+
+    private static final long COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final int COUNTER_START_BOUND = 1 << (COUNTER_BITS - 1);
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private static final UuidV7 NODE = new UuidV7();
+
+    /**
+     * The timestamp and counter of the last id, {@code millis << 12 | counter}.
+     */
+    private final AtomicLong last = new AtomicLong();
+
+    UuidV7() {
+    }
+
+    public static UUID next() {
+        return NODE.generate(System.currentTimeMillis(), ThreadLocalRandom.current());
+    }
+
+    UUID generate(long epochMillis, Random random) {
+        long candidate = epochMillis << COUNTER_BITS | random.nextInt(COUNTER_START_BOUND);
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = candidate > previous ? candidate : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+
+        long mostSignificantBits = (next >>> COUNTER_BITS) << 16 | VERSION | (next & COUNTER_MASK);
+        long leastSignificantBits = random.nextLong() & RANDOM_MASK | VARIANT;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * @return the creation time in Unix milliseconds of a version 7 UUID
+     */
+    public static long timestamp(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,21 @@
+-- Schema for the reactive profile, which runs without Hibernate. Matches the tables
+-- generated from the User and Phone mappings so both stacks share the same layout.
+create table if not exists user (
+    id binary(16) not null,
+    created timestamp,
+    email varchar(255),
+    is_active boolean not null,
+    last_login timestamp,
+    name varchar(255),
+    password varchar(255),
+    primary key (id),
+    constraint uk_user_email unique (email)
+);
+
+create table if not exists user_phones (
+    user_id binary(16) not null,
+    citycode integer not null,
+    contrycode varchar(255),
+    number bigint not null,
+    foreign key (user_id) references user (id)
+);
@@ -0,0 +1,33 @@
+-- Schema of every shard of the sharded user store. A user and its phones live on the
+-- shard of its id; user_email is the email directory, partitioned by email, and its
+-- primary key is what keeps emails unique across shards. claimed_at lets the orphaned
+-- email sweep only look at claims made since its previous run.
+create table if not exists user (
+    id binary(16) not null,
+    created timestamp,
+    email varchar(255),
+    is_active boolean not null,
+    last_login timestamp,
+    name varchar(255),
+    password varchar(255),
+    primary key (id)
+);
+
+create table if not exists user_phones (
+    user_id binary(16) not null,
+    citycode integer not null,
+    contrycode varchar(255),
+    number bigint not null,
+    foreign key (user_id) references user (id)
+);
+
+create table if not exists user_email (
+    email varchar(255) not null,
+    user_id binary(16) not null,
+    claimed_at timestamp default current_timestamp not null,
+    primary key (email)
+);
+
+alter table user_email add column if not exists claimed_at timestamp default current_timestamp not null;
+
+create index if not exists user_email_claimed_at on user_email (claimed_at);
@@ -0,0 +1,81 @@
+package com.globallogic.technique.config
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.globallogic.technique.dto.request.UserDTO
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.MediaType
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+@SpringBootTest(properties = 'metrics.scrape-token=' + MetricsEndpointSpec.SCRAPE_TOKEN)
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsEndpointSpec extends Specification {
+
+    static final String SCRAPE_TOKEN = "scrape-token"
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    def "Auth, sign-up, login, repository and pool metrics are scrapable with the scrape token"() {
+        given:
+        def request = UserDTO.builder()
+                .email("metrics-${UUID.randomUUID()}@example.com".toString())
+                .password("a2asfGfdfdf4")
+                .build()
+        def signUp = mockMvc.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn()
+        def token = objectMapper.readTree(signUp.response.contentAsString).get("token").asText()
+
+        mockMvc.perform(get("/users/login").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+        mockMvc.perform(get("/users/login").header("Authorization", "Bearer invalid.token.value"))
+                .andExpect(status().isUnauthorized())
+
+        when:
+        def body = mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + SCRAPE_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn().response.contentAsString
+
+        then:
+        sampled(body, "auth_token_verification_seconds_count", 'outcome="valid"')
+        sampled(body, "auth_token_verification_seconds_count", 'outcome="invalid"')
+        sampled(body, "users_signup_seconds_count", 'outcome="success"')
+        ["validate", "hash", "persist", "sign"].every { sampled(body, "users_signup_stage_seconds_count", "stage=\"$it\"") }
+        ["load", "sign"].every { sampled(body, "users_login_stage_seconds_count", "stage=\"$it\"") }
+        sampled(body, "users_login_seconds_bucket", 'outcome="success"')
+        sampled(body, "password_hashing_seconds_count", "")
+        sampled(body, "spring_data_repository_invocations_seconds_count", 'method="saveAndFlush"')
+        sampled(body, "hikaricp_connections_max", "pool=")
+    }
+
+    def "Prometheus is closed to #description while health stays public"() {
+        expect:
+        mockMvc.perform(authorization == null ? get("/actuator/prometheus") : get("/actuator/prometheus").header("Authorization", authorization))
+                .andExpect(status().isUnauthorized())
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+
+        where:
+        description                  | authorization
+        "anonymous scrapers"         | null
+        "a wrong token"              | "Bearer wrong-token"
+        "the token without a scheme" | SCRAPE_TOKEN
+    }
+
+    private static boolean sampled(String body, String name, String tag) {
+        body.readLines().any { it.startsWith(name + "{") && it.contains(tag) && !it.endsWith(" 0.0") }
+    }
+}
@@ -0,0 +1,60 @@
+package com.globallogic.technique.config
+
+import com.globallogic.technique.service.LastLoginBuffer
+import com.globallogic.technique.service.TokenValidationService
+import com.zaxxer.hikari.HikariDataSource
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.availability.ApplicationAvailability
+import org.springframework.boot.availability.ReadinessState
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.cache.CacheManager
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+@SpringBootTest(properties = ['users.warm-up.iterations=50', 'users.warm-up.sign-ups=3'])
+@ActiveProfiles(ProductionConfig.PROFILE)
+class ProductionConfigSpec extends Specification {
+
+    @Autowired
+    HikariDataSource dataSource
+
+    @Autowired
+    ApplicationAvailability availability
+
+    @Autowired
+    CacheManager cacheManager
+
+    @Autowired
+    LastLoginBuffer lastLoginBuffer
+
+    @Autowired
+    TokenValidationService tokenValidationService
+
+    @Autowired
+    MeterRegistry meterRegistry
+
+    def "the pool is sized from the core count and kept full"() {
+        expect:
+        dataSource.maximumPoolSize == Runtime.runtime.availableProcessors() * 2 + 1
+        dataSource.minimumIdle == dataSource.maximumPoolSize
+        dataSource.hikariPoolMXBean.totalConnections == dataSource.maximumPoolSize
+    }
+
+    def "the application is ready once the warm-up ran, without leaving users behind"() {
+        expect:
+        availability.readinessState == ReadinessState.ACCEPTING_TRAFFIC
+        new JdbcTemplate(dataSource).queryForObject(
+                "select count(*) from user where email like 'warmup-%'", Integer) == 0
+    }
+
+    def "the warm-up goes through the user service and leaves nothing in the caches or the login buffer"() {
+        expect:
+        meterRegistry.get("users.signup").tag("outcome", "success").timer().count() == 3
+        meterRegistry.get("users.login").tag("outcome", "success").timer().count() == 50
+        [CacheConfig.USERS_CACHE, CacheConfig.USER_EMAILS_CACHE].every { cacheManager.getCache(it).nativeCache.asMap().isEmpty() }
+        lastLoginBuffer.pendingCount() == 0
+        tokenValidationService.tokenCacheStats().requestCount() == 0
+    }
+}
@@ -0,0 +1,132 @@
+package com.globallogic.technique.config.datasource
+
+import com.globallogic.technique.config.jwt.JwtPrincipal
+import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.service.UserService
+import com.globallogic.technique.util.UuidBytes
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Qualifier
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.jdbc.core.JdbcTemplate
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.time.Instant
+
+/**
+ * Two local H2 databases as primary and replica; the simulated replication only runs
+ * when a test calls it, which stands for a replica lagging behind.
+ */
+@SpringBootTest(properties = [
+        'users.replica.enabled=true',
+        'users.replica.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1;MODE=PostgreSQL',
+        'users.replica.simulated-lag-ms=3600000',
+        'users.replica.read-your-writes-window-ms=' + ReplicaRoutingSpec.WINDOW_MS
+])
+class ReplicaRoutingSpec extends Specification {
+
+    static final long WINDOW_MS = 300
+
+    @Autowired
+    UserService userService
+
+    @Autowired
+    SimulatedReplication replication
+
+    @Autowired
+    MeterRegistry meterRegistry
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource
+
+    def "sign-up writes to the primary only"() {
+        given:
+        def primaryBefore = connections("primary")
+        def replicaBefore = connections("replica")
+
+        when:
+        def user = signUp()
+
+        then:
+        connections("primary") > primaryBefore
+        connections("replica") == replicaBefore
+        replicaUsers(user.id) == 0
+
+        when:
+        replication.replicate()
+
+        then:
+        replicaUsers(user.id) == 1
+    }
+
+    def "a login right after sign-up reads the primary"() {
+        given:
+        def user = signUp()
+        def recentWriteReads = reads("recent-write")
+        def replicaBefore = connections("replica")
+
+        when:
+        def response = userService.login(principal(user.id))
+
+        then:
+        response.id == user.id
+        reads("recent-write") == recentWriteReads + 1
+        connections("replica") == replicaBefore
+    }
+
+    def "once the window passed a replicated user is read from the replica"() {
+        given:
+        def user = signUp()
+        replication.replicate()
+        Thread.sleep(WINDOW_MS + 100)
+        def replicaReads = reads("read")
+        def replicaBefore = connections("replica")
+
+        when:
+        def response = userService.login(principal(user.id))
+
+        then:
+        response.id == user.id
+        reads("read") == replicaReads + 1
+        connections("replica") == replicaBefore + 1
+    }
+
+    def "a user the lagging replica does not have yet is read from the primary"() {
+        given:
+        def user = signUp()
+        Thread.sleep(WINDOW_MS + 100)
+        def missReads = reads("replica-miss")
+
+        when:
+        def response = userService.login(principal(user.id))
+
+        then:
+        response.id == user.id
+        reads("replica-miss") == missReads + 1
+    }
+
+    private def signUp() {
+        userService.signUp(UserDTO.builder()
+                .email("replica-" + UUID.randomUUID() + "@example.com")
+                .password("Password12")
+                .build())
+    }
+
+    private static JwtPrincipal principal(UUID userId) {
+        new JwtPrincipal(userId, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+    }
+
+    private double connections(String target) {
+        meterRegistry.get("datasource.routing").tag("target", target).counter().count()
+    }
+
+    private double reads(String reason) {
+        meterRegistry.get("users.login.reads").tag("reason", reason).counter().count()
+    }
+
+    private int replicaUsers(UUID id) {
+        new JdbcTemplate(replicaDataSource).queryForObject("select count(*) from user where id = ?", Integer, [UuidBytes.toBytes(id)] as Object[])
+    }
+}
@@ -0,0 +1,100 @@
+package com.globallogic.technique.config.jwt
+
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.security.Keys
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.time.Instant
+
+class Hs256TokenVerifierSpec extends Specification {
+
+    @Shared
+    def key = Keys.hmacShaKeyFor("12345678901234567890123456789012".bytes)
+
+    @Shared
+    def otherKey = Keys.hmacShaKeyFor("abcdefghijklmnopqrstuvwxyzabcdef".bytes)
+
+    @Shared
+    def longKey = Keys.hmacShaKeyFor(("x" * 48).bytes)
+
+    @Shared
+    def jjwt = new JjwtTokenVerifier(key)
+
+    @Shared
+    def hs256 = new Hs256TokenVerifier(key, jjwt)
+
+    def "Both verifiers agree on #description"() {
+        expect:
+        hs256.verify(token) == jjwt.verify(token)
+
+        where:
+        description                       | token
+        "a valid token"                   | issue(UUID.randomUUID().toString(), 60_000)
+        "an uppercase subject"            | issue(UUID.randomUUID().toString().toUpperCase(), 60_000)
+        "an expired token"                | issue(UUID.randomUUID().toString(), -60_000)
+        "a non UUID subject"              | issue("not-a-uuid", 60_000)
+        "a token signed with another key" | Jwts.builder().setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).signWith(otherKey, SignatureAlgorithm.HS256).compact()
+        "a tampered signature"            | tamper(issue(UUID.randomUUID().toString(), 60_000), -1)
+        "a tampered payload"              | tamper(issue(UUID.randomUUID().toString(), 60_000), Hs256TokenVerifier.HEADER.length() + 5)
+        "a truncated signature"           | issue(UUID.randomUUID().toString(), 60_000).with { it.substring(0, it.length() - 1) }
+        "a typ header"                    | Jwts.builder().setHeaderParam("typ", "JWT").setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key, SignatureAlgorithm.HS256).compact()
+        "an extra claim"                  | Jwts.builder().setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).claim("role", "admin").signWith(key, SignatureAlgorithm.HS256).compact()
+        "no jti claim"                    | Jwts.builder().setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key, SignatureAlgorithm.HS256).compact()
+        "a non UUID jti"                  | Jwts.builder().setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).setId("x" * 36).signWith(key, SignatureAlgorithm.HS256).compact()
+        "no expiry claim"                 | Jwts.builder().setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).signWith(key, SignatureAlgorithm.HS256).compact()
+        "no subject claim"                | Jwts.builder().setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key, SignatureAlgorithm.HS256).compact()
+        "an HS384 token"                  | Jwts.builder().setSubject(UUID.randomUUID().toString()).setIssuedAt(new Date()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).signWith(longKey, SignatureAlgorithm.HS384).compact()
+        "an unsigned token"               | Jwts.builder().setSubject(UUID.randomUUID().toString()).setExpiration(new Date(System.currentTimeMillis() + 60_000)).compact()
+        "a two segment token"             | "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ4In0"
+        "a garbage token"                 | "invalid.token.value"
+        "a non ascii token"               | Hs256TokenVerifier.HEADER + ".ñ." + ("a" * 43)
+        "trailing whitespace"             | issue(UUID.randomUUID().toString(), 60_000) + " "
+    }
+
+    def "Tokens issued by this service are verified without the fallback"() {
+        given:
+        def fallback = Mock(TokenVerifier)
+        def verifier = new Hs256TokenVerifier(key, fallback)
+        def id = UUID.randomUUID()
+
+        when:
+        def principal = verifier.verify(issue(id.toString(), 60_000))
+
+        then:
+        principal.userId == id
+        principal.expiresAt.isAfter(principal.issuedAt)
+        principal.tokenId != null
+        0 * fallback.verify(_)
+    }
+
+    def "Expired tokens are decoded without the fallback, leaving expiry to the caller"() {
+        given:
+        def fallback = Mock(TokenVerifier)
+        def verifier = new Hs256TokenVerifier(key, fallback)
+
+        when:
+        def principal = verifier.verify(issue(UUID.randomUUID().toString(), -60_000))
+
+        then:
+        principal.expiresAt.isBefore(Instant.now())
+        0 * fallback.verify(_)
+    }
+
+    private String issue(String subject, long expiresInMs) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .setId(UUID.randomUUID().toString())
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact()
+    }
+
+    private static String tamper(String token, int index) {
+        int position = index < 0 ? token.length() + index : index
+        char replacement = token.charAt(position) == 'A' ? 'B' : 'A'
+        return token.substring(0, position) + replacement + token.substring(position + 1)
+    }
+}
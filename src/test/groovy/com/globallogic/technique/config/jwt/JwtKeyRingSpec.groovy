@@ -0,0 +1,168 @@
+package com.globallogic.technique.config.jwt
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.jsonwebtoken.JwsHeader
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import org.springframework.core.io.FileSystemResource
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.security.MessageDigest
+
+class JwtKeyRingSpec extends Specification {
+
+    static final long LIFETIME_MS = 60_000
+    static final String PASSWORD = "changeit"
+
+    @TempDir
+    Path directory
+
+    def "The JWKS publishes the active and the next key with RFC 7638 thumbprints as kid"() {
+        given:
+        def keyRing = JwtKeyRing.generated(LIFETIME_MS, LIFETIME_MS)
+
+        when:
+        def keys = jwks(keyRing)
+
+        then:
+        keys.size() == 2
+        keys[0].kid == keyRing.activeKey().kid
+        keys.every { it.kty == "EC" && it.crv == "P-256" && it.alg == "ES256" && it.use == "sig" }
+        keys.every { it.kid == thumbprint(it) }
+        keyRing.jwks().etag.startsWith('"')
+    }
+
+    def "Rotation promotes the pre-published key and keeps the previous one published"() {
+        given:
+        def keyRing = JwtKeyRing.generated(LIFETIME_MS, LIFETIME_MS)
+        def initial = jwks(keyRing)*.kid
+        def etag = keyRing.jwks().etag
+
+        when:
+        keyRing.rotate()
+        def rotated = jwks(keyRing)*.kid
+
+        then:
+        keyRing.activeKey().kid == initial[1]
+        rotated.size() == 3
+        rotated.containsAll(initial)
+        keyRing.jwks().etag != etag
+    }
+
+    def "A rotated-out key stops verifying and is unpublished once the overlap window ends"() {
+        given:
+        def keyRing = JwtKeyRing.generated(50, 50)
+        def verifier = new JjwtTokenVerifier(keyRing.verificationKeyResolver())
+        def retiredKid = keyRing.activeKey().kid
+        def token = sign(keyRing.activeKey())
+
+        when:
+        keyRing.rotate()
+
+        then:
+        verifier.verify(token) != null
+
+        when:
+        Thread.sleep(100)
+        keyRing.rotate()
+
+        then:
+        verifier.verify(token) == null
+        !jwks(keyRing)*.kid.contains(retiredKid)
+    }
+
+    def "Instances loading the same keystore sign with the key started last and accept each other's tokens"() {
+        given:
+        addKey("previous", "-2d")
+        addKey("current", "-1d")
+        addKey("upcoming", "+1d")
+        def first = fromKeyStore(2 * 86_400_000L)
+        def second = fromKeyStore(2 * 86_400_000L)
+
+        expect:
+        first.activeKey().kid == second.activeKey().kid
+        first.jwks().json == second.jwks().json
+        jwks(first).size() == 3
+        new JjwtTokenVerifier(second.verificationKeyResolver()).verify(sign(first.activeKey())) != null
+        new JjwtTokenVerifier(first.verificationKeyResolver()).verify(sign(second.activeKey())) != null
+    }
+
+    def "A reload picks up a key added to the keystore and a superseded key verifies for the overlap window only"() {
+        given:
+        addKey("expired", "-3d")
+        addKey("current", "-1d")
+        def keyRing = fromKeyStore(LIFETIME_MS)
+        def verifier = new JjwtTokenVerifier(keyRing.verificationKeyResolver())
+        def currentKid = keyRing.activeKey().kid
+        def token = sign(keyRing.activeKey())
+
+        expect: "the key superseded two days ago is past its overlap window"
+        jwks(keyRing)*.kid == [currentKid]
+
+        when:
+        addKey("next", "-10S")
+        keyRing.reload()
+
+        then:
+        keyRing.activeKey().kid != currentKid
+        jwks(keyRing)*.kid.contains(currentKid)
+        verifier.verify(token) != null
+    }
+
+    def "Without a keystore ES256 refuses to start unless per-instance keys are enabled explicitly"() {
+        when:
+        new JwtKeyRing(LIFETIME_MS, LIFETIME_MS, null, "", false)
+
+        then:
+        thrown(IllegalStateException)
+
+        expect:
+        new JwtKeyRing(LIFETIME_MS, LIFETIME_MS, null, "", true).activeKey() != null
+    }
+
+    def "An overlap window shorter than the token lifetime is rejected"() {
+        when:
+        JwtKeyRing.generated(LIFETIME_MS - 1, LIFETIME_MS)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private JwtKeyRing fromKeyStore(long overlapMs) {
+        JwtKeyRing.fromKeyStore(overlapMs, LIFETIME_MS, new FileSystemResource(directory.resolve("jwt.p12")), PASSWORD)
+    }
+
+    private void addKey(String alias, String startDate) {
+        def keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString()
+        def process = [keytool, "-genkeypair", "-alias", alias, "-keyalg", "EC", "-groupname", "secp256r1",
+                       "-startdate", startDate, "-validity", "365", "-dname", "CN=" + alias,
+                       "-storetype", "PKCS12", "-keystore", directory.resolve("jwt.p12").toString(),
+                       "-storepass", PASSWORD].execute()
+        def errors = new StringBuilder()
+        process.consumeProcessOutput(new StringBuilder(), errors)
+        assert process.waitFor() == 0: errors
+    }
+
+    private static List<Map> jwks(JwtKeyRing keyRing) {
+        new ObjectMapper().readValue(keyRing.jwks().json, Map).keys as List<Map>
+    }
+
+    private static String thumbprint(Map jwk) {
+        def canonical = "{\"crv\":\"${jwk.crv}\",\"kty\":\"${jwk.kty}\",\"x\":\"${jwk.x}\",\"y\":\"${jwk.y}\"}".toString()
+        Base64.urlEncoder.withoutPadding().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8)))
+    }
+
+    private static String sign(JwtKeyRing.SigningKey key) {
+        Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid)
+                .setSubject(UUID.randomUUID().toString())
+                .setExpiration(new Date(System.currentTimeMillis() + LIFETIME_MS))
+                .signWith(key.privateKey, SignatureAlgorithm.ES256)
+                .compact()
+    }
+}
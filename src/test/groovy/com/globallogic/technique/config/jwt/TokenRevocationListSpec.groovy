@@ -0,0 +1,71 @@
+package com.globallogic.technique.config.jwt
+
+import spock.lang.Specification
+
+import java.time.Instant
+
+class TokenRevocationListSpec extends Specification {
+
+    def revocationList = new TokenRevocationList(1000)
+    def now = Instant.ofEpochSecond(1_700_000_000)
+
+    def "Only the revoked token is revoked, not other tokens of the same user issued in the same second"() {
+        given:
+        def userId = UUID.randomUUID()
+        def revoked = principal(userId, UUID.randomUUID())
+        revocationList.revoke(new TokenRevocationList.Revocation(revoked.tokenId, revoked.expiresAt))
+
+        expect:
+        revocationList.isRevoked(revoked)
+        !revocationList.isRevoked(principal(userId, UUID.randomUUID()))
+        !revocationList.isRevoked(principal(userId, null))
+    }
+
+    def "Revoking a token twice keeps a single entry"() {
+        given:
+        def tokenId = UUID.randomUUID()
+
+        when:
+        revocationList.revokeAll([
+                new TokenRevocationList.Revocation(tokenId, now.plusSeconds(240)),
+                new TokenRevocationList.Revocation(tokenId, now.plusSeconds(240))
+        ])
+        revocationList.revoke(new TokenRevocationList.Revocation(tokenId, now.plusSeconds(240)))
+
+        then:
+        revocationList.size() == 1
+        revocationList.isRevoked(principal(UUID.randomUUID(), tokenId))
+    }
+
+    def "Expired revocations are purged and their tokens no longer match"() {
+        given:
+        def expired = UUID.randomUUID()
+        def active = UUID.randomUUID()
+        revocationList.revokeAll([
+                new TokenRevocationList.Revocation(expired, now.plusSeconds(60)),
+                new TokenRevocationList.Revocation(active, now.plusSeconds(600))
+        ])
+
+        when:
+        revocationList.purgeExpired(now.plusSeconds(60))
+
+        then:
+        revocationList.size() == 1
+        !revocationList.isRevoked(principal(UUID.randomUUID(), expired))
+        revocationList.isRevoked(principal(UUID.randomUUID(), active))
+    }
+
+    def "Filter hits are confirmed against the exact set, so no revoked token is missed and no other token matches"() {
+        given:
+        def revoked = (1..5000).collect { UUID.randomUUID() }
+        revocationList.revokeAll(revoked.collect { new TokenRevocationList.Revocation(it, now.plusSeconds(300)) })
+
+        expect:
+        revoked.every { revocationList.isRevoked(principal(UUID.randomUUID(), it)) }
+        (1..10_000).count { revocationList.isRevoked(principal(UUID.randomUUID(), UUID.randomUUID())) } == 0
+    }
+
+    private JwtPrincipal principal(UUID userId, UUID tokenId) {
+        new JwtPrincipal(userId, now, now.plusSeconds(240), tokenId)
+    }
+}
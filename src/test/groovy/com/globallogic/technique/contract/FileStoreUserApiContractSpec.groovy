@@ -0,0 +1,11 @@
+package com.globallogic.technique.contract
+
+import org.springframework.boot.test.context.SpringBootTest
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = [
+        'users.store=file',
+        'users.store.file.directory=${java.io.tmpdir}/technique-users-${random.uuid}',
+        'users.store.file.initial-size-bytes=65536'
+])
+class FileStoreUserApiContractSpec extends UserApiContractSpec {
+}
@@ -0,0 +1,66 @@
+package com.globallogic.technique.contract
+
+import com.globallogic.technique.config.ReactiveStack
+import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.service.LastLoginBuffer
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.HttpHeaders
+import org.springframework.http.MediaType
+import org.springframework.r2dbc.core.DatabaseClient
+import org.springframework.test.context.ActiveProfiles
+
+import java.time.LocalDateTime
+import java.time.temporal.ChronoUnit
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveStack.PROFILE)
+class ReactiveUserApiContractSpec extends UserApiContractSpec {
+
+    @Autowired
+    LastLoginBuffer lastLoginBuffer
+
+    @Autowired
+    DatabaseClient databaseClient
+
+    def "Buffered logins are flushed to the user table through R2DBC"() {
+        given:
+        def email = "reactive-${UUID.randomUUID()}@example.com".toString()
+        def created = webTestClient.post().uri("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(UserDTO.builder().email(email).password("a2asfGfdfdf4").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map).returnResult().responseBody
+
+        def login = webTestClient.get().uri("/users/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map).returnResult().responseBody
+
+        when:
+        lastLoginBuffer.flush()
+        def stored = databaseClient.sql("select last_login from user where email = :email")
+                .bind("email", email)
+                .map { row -> row.get(0, LocalDateTime) }
+                .one()
+                .block()
+
+        then:
+        lastLoginBuffer.pendingCount() == 0
+        stored.truncatedTo(ChronoUnit.MILLIS) == LocalDateTime.parse(login.lastLogin as String).truncatedTo(ChronoUnit.MILLIS)
+    }
+
+    def "Prometheus requires the scrape token while health stays public"() {
+        expect:
+        webTestClient.get().uri("/actuator/prometheus").exchange()
+                .expectStatus().isUnauthorized()
+        webTestClient.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer wrong-token")
+                .exchange()
+                .expectStatus().isUnauthorized()
+        webTestClient.get().uri("/actuator/health").exchange()
+                .expectStatus().isOk()
+    }
+}
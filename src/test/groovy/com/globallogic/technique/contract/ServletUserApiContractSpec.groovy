@@ -0,0 +1,49 @@
+package com.globallogic.technique.contract
+
+import com.globallogic.technique.dto.request.TokenRefreshRequestDto
+import com.globallogic.technique.dto.request.UserDTO
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.HttpHeaders
+import org.springframework.http.MediaType
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServletUserApiContractSpec extends UserApiContractSpec {
+
+    def "A logout ends its session only: its access and refresh tokens are rejected, other sessions go on"() {
+        given:
+        def created = webTestClient.post().uri("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(UserDTO.builder().email("logout-${UUID.randomUUID()}@example.com".toString()).password("a2asfGfdfdf4").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map).returnResult().responseBody
+        def otherSession = webTestClient.get().uri("/users/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map).returnResult().responseBody.token
+
+        when:
+        webTestClient.post().uri("/users/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TokenRefreshRequestDto(created.refreshToken as String))
+                .exchange()
+                .expectStatus().isNoContent()
+
+        then:
+        login(created.token).expectStatus().isUnauthorized()
+        login(otherSession).expectStatus().isOk()
+        webTestClient.post().uri("/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TokenRefreshRequestDto(created.refreshToken as String))
+                .exchange()
+                .expectStatus().isUnauthorized()
+    }
+
+    private def login(token) {
+        webTestClient.get().uri("/users/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+    }
+}
@@ -0,0 +1,13 @@
+package com.globallogic.technique.contract
+
+import org.springframework.boot.test.context.SpringBootTest
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = [
+        'users.store=sharded',
+        'users.store.sharded.shards=a,b,c',
+        'users.store.sharded.shard.a.url=jdbc:h2:mem:api-shard-a;DB_CLOSE_DELAY=-1;MODE=PostgreSQL',
+        'users.store.sharded.shard.b.url=jdbc:h2:mem:api-shard-b;DB_CLOSE_DELAY=-1;MODE=PostgreSQL',
+        'users.store.sharded.shard.c.url=jdbc:h2:mem:api-shard-c;DB_CLOSE_DELAY=-1;MODE=PostgreSQL'
+])
+class ShardedStoreUserApiContractSpec extends UserApiContractSpec {
+}
@@ -0,0 +1,140 @@
+package com.globallogic.technique.contract
+
+import com.globallogic.technique.dto.request.PhoneDto
+import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.util.UserRequestValidator
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.http.HttpHeaders
+import org.springframework.http.MediaType
+import org.springframework.test.web.reactive.server.WebTestClient
+import spock.lang.Specification
+
+/**
+ * The /users contract over real HTTP, run once per stack by the subclasses so the servlet
+ * and the reactive profile answer with the same statuses and the same error body.
+ */
+abstract class UserApiContractSpec extends Specification {
+
+    @Autowired
+    WebTestClient webTestClient
+
+    def "Sign-up returns the new user with a token"() {
+        when:
+        def response = signUp(newUser())
+
+        then:
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath('$.id').isNotEmpty()
+                .jsonPath('$.token').isNotEmpty()
+                .jsonPath('$.created').isNotEmpty()
+                .jsonPath('$.lastLogin').isNotEmpty()
+                .jsonPath('$.isActive').isEqualTo(true)
+    }
+
+    def "Sign-up without email is rejected with 400"() {
+        when:
+        def response = signUp(UserDTO.builder().password("Password12").build())
+
+        then:
+        expectError(response, 400, UserRequestValidator.EMAIL_REQUIRED_MESSAGE)
+    }
+
+    def "Sign-up with a malformed email is rejected with 400"() {
+        when:
+        def response = signUp(UserDTO.builder().email("not-an-email").password("Password12").build())
+
+        then:
+        expectError(response, 400, UserRequestValidator.EMAIL_FORMAT_MESSAGE + "not-an-email")
+    }
+
+    def "Sign-up with a malformed password is rejected with 400"() {
+        when:
+        def response = signUp(UserDTO.builder().email(uniqueEmail()).password("password").build())
+
+        then:
+        expectError(response, 400, UserRequestValidator.PASSWORD_FORMAT_MESSAGE)
+    }
+
+    def "Signing up twice with the same email is rejected with 409"() {
+        given:
+        def request = newUser()
+        signUp(request).expectStatus().isOk()
+
+        when:
+        def response = signUp(request)
+
+        then:
+        expectError(response, 409, "User already exist")
+    }
+
+    def "Login returns the user with its phones and a new token"() {
+        given:
+        def request = newUser()
+        def created = signUp(request).expectStatus().isOk()
+                .expectBody(Map).returnResult().responseBody
+
+        when:
+        def response = webTestClient.get().uri("/users/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.token)
+                .exchange()
+
+        then:
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath('$.id').isEqualTo(created.id)
+                .jsonPath('$.email').isEqualTo(request.email)
+                .jsonPath('$.name').isEqualTo(request.name)
+                .jsonPath('$.isActive').isEqualTo(true)
+                .jsonPath('$.token').isNotEmpty()
+                .jsonPath('$.phones[0].number').isEqualTo(12345678)
+                .jsonPath('$.phones[0].citycode').isEqualTo(1)
+                .jsonPath('$.phones[0].contrycode').isEqualTo("+56")
+    }
+
+    def "Login with an invalid token is rejected with 401"() {
+        when:
+        def response = webTestClient.get().uri("/users/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not.a.token")
+                .exchange()
+
+        then:
+        expectError(response, 401, "Invalid or expired token")
+    }
+
+    def "Login without a token is rejected with 401"() {
+        when:
+        def response = webTestClient.get().uri("/users/login").exchange()
+
+        then:
+        expectError(response, 401, "Invalid or expired token")
+    }
+
+    private WebTestClient.ResponseSpec signUp(UserDTO request) {
+        webTestClient.post().uri("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+    }
+
+    private static void expectError(WebTestClient.ResponseSpec response, int code, String detail) {
+        response.expectStatus().isEqualTo(code)
+                .expectBody()
+                .jsonPath('$.error[0].timestamp').isNotEmpty()
+                .jsonPath('$.error[0].code').isEqualTo(code)
+                .jsonPath('$.error[0].detail').isEqualTo(detail)
+    }
+
+    private static UserDTO newUser() {
+        UserDTO.builder()
+                .name("Contract User")
+                .email(uniqueEmail())
+                .password("a2asfGfdfdf4")
+                .phones([new PhoneDto(12345678, 1, "+56")])
+                .build()
+    }
+
+    private static String uniqueEmail() {
+        "contract-${UUID.randomUUID()}@example.com".toString()
+    }
+}
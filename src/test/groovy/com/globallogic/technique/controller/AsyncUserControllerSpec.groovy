@@ -0,0 +1,146 @@
+package com.globallogic.technique.controller
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.globallogic.technique.config.jwt.JwtPrincipal
+import com.globallogic.technique.config.jwt.TokenVerification
+import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.dto.response.UserResponseDto
+import com.globallogic.technique.dto.response.UserSigUpResponseDto
+import com.globallogic.technique.exception.ManagementException
+import com.globallogic.technique.exception.user.UserAlreadyExistsException
+import com.globallogic.technique.service.TokenRevocationService
+import com.globallogic.technique.service.TokenValidationService
+import com.globallogic.technique.service.UserService
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.MediaType
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+
+import java.time.Instant
+import java.time.LocalDateTime
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+@SpringBootTest(properties = ["web.execution-mode=async", "users.batch.api-key=batch-key"])
+@AutoConfigureMockMvc
+class AsyncUserControllerSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    @SpringBean
+    UserService userService = Mock()
+
+    @SpringBean
+    TokenValidationService tokenValidationService = Mock()
+
+    def userDTO = UserDTO.builder()
+            .email("test@example.com")
+            .password("Password12")
+            .build()
+
+    def "Sign up completes on the user request pool"() {
+        given:
+        String thread = null
+        userService.signUp(_) >> {
+            thread = Thread.currentThread().name
+            UserSigUpResponseDto.builder().id(UUID.randomUUID()).created(LocalDateTime.now()).token("mocktoken").isActive(true).build()
+        }
+
+        when:
+        def started = mockMvc.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+
+        then:
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.token').value("mocktoken"))
+        thread.startsWith("user-request-")
+    }
+
+    def "Login keeps the authenticated principal across the async hand-off"() {
+        given:
+        def userId = UUID.randomUUID()
+        def principal = new JwtPrincipal(userId, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+        tokenValidationService.verifyJwtToken("validtoken") >> TokenVerification.valid(principal)
+        userService.login(principal) >> UserResponseDto.builder().id(userId).token("newtoken").build()
+
+        when:
+        def started = mockMvc.perform(get("/users/login").header("Authorization", "Bearer validtoken"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+
+        then:
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.id').value(userId.toString()))
+    }
+
+    def "Service exceptions raised on the pool keep their error mapping"() {
+        given:
+        userService.signUp(_) >> { throw new UserAlreadyExistsException("User already exist") }
+
+        when:
+        def started = mockMvc.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userDTO)))
+                .andReturn()
+
+        then:
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath('$.error[0].detail').value("User already exist"))
+    }
+
+    def "A batch runs with its own timeout rather than the default request timeout"() {
+        given:
+        def release = new CountDownLatch(1)
+        userService.signUpBatchStream(_) >> { release.await(); [] }
+
+        when:
+        def started = mockMvc.perform(post("/users/sign-up/batch")
+                .header("X-Api-Key", "batch-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString([userDTO])))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+
+        then:
+        started.request.asyncContext.timeout == 600_000
+
+        cleanup:
+        release.countDown()
+    }
+
+    def "A saturated pool answers 503"() {
+        given:
+        Executor saturated = { throw new RejectedExecutionException("full") }
+        def standalone = MockMvcBuilders.standaloneSetup(new AsyncUserController(userService, Mock(TokenRevocationService), objectMapper, saturated, 600_000))
+                .setControllerAdvice(new ManagementException())
+                .build()
+
+        when:
+        def result = standalone.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userDTO)))
+
+        then:
+        result.andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath('$.error[0].detail').value("Too many requests, try again later"))
+        0 * userService.signUp(_)
+    }
+}
@@ -0,0 +1,69 @@
+package com.globallogic.technique.controller
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.globallogic.technique.config.jwt.JwtKeyRing
+import com.globallogic.technique.dto.request.UserDTO
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.http.HttpHeaders
+import org.springframework.http.MediaType
+import org.springframework.test.web.servlet.MockMvc
+import spock.lang.Specification
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+@SpringBootTest(properties = ["jwt.signing-algorithm=es256", "jwt.keys.generate=true", "jwt.jwks.max-age-seconds=120"])
+@AutoConfigureMockMvc
+class JwksControllerSpec extends Specification {
+
+    @Autowired
+    MockMvc mockMvc
+
+    @Autowired
+    ObjectMapper objectMapper
+
+    @Autowired
+    JwtKeyRing keyRing
+
+    def "The JWKS is public, cacheable and revalidated with its ETag"() {
+        when:
+        def response = mockMvc.perform(get(JwksController.JWKS_PATH))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=120, public"))
+                .andExpect(header().string(HttpHeaders.ETAG, keyRing.jwks().etag))
+                .andExpect(jsonPath('$.keys[0].kid').value(keyRing.activeKey().kid))
+                .andReturn()
+
+        then:
+        response.response.contentAsString == keyRing.jwks().json
+
+        when:
+        def revalidated = mockMvc.perform(get(JwksController.JWKS_PATH).header(HttpHeaders.IF_NONE_MATCH, keyRing.jwks().etag))
+                .andReturn()
+
+        then:
+        revalidated.response.status == 304
+        revalidated.response.contentAsString.isEmpty()
+    }
+
+    def "ES256 tokens issued at sign-up authenticate the login endpoint"() {
+        given:
+        def request = UserDTO.builder()
+                .email("es256-${UUID.randomUUID()}@example.com".toString())
+                .password("a2asfGfdfdf4")
+                .build()
+        def signUp = mockMvc.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn()
+        def token = objectMapper.readTree(signUp.response.contentAsString).get("token").asText()
+
+        expect:
+        mockMvc.perform(get("/users/login").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.email').value(request.email))
+    }
+}
@@ -1,11 +1,17 @@
 package com.globallogic.technique.controller
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.globallogic.technique.config.SecurityConfig
+import com.globallogic.technique.config.jwt.JwtPrincipal
+import com.globallogic.technique.config.jwt.TokenVerification
 import com.globallogic.technique.dto.request.PhoneDto
 import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.dto.response.BatchSignUpResultDto
 import com.globallogic.technique.dto.response.PhoneResponseDto
 import com.globallogic.technique.dto.response.UserResponseDto
 import com.globallogic.technique.dto.response.UserSigUpResponseDto
+import com.globallogic.technique.exception.user.MissingRequiredFieldException
+import com.globallogic.technique.service.TokenRevocationService
 import com.globallogic.technique.service.TokenValidationService
 import com.globallogic.technique.service.UserService
 import org.spockframework.spring.SpringBean
@@ -17,15 +23,18 @@ import org.springframework.http.MediaType
 import org.springframework.test.web.servlet.MockMvc
 import spock.lang.Specification
 
+import java.time.Instant
 import java.time.LocalDateTime
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
 
-@SpringBootTest
+@SpringBootTest(properties = 'users.batch.api-key=' + UserControllerSpec.BATCH_API_KEY)
 @AutoConfigureMockMvc
 class UserControllerSpec extends Specification {
 
+    static final String BATCH_API_KEY = "batch-key"
+
     @Autowired
     MockMvc mockMvc
 
@@ -38,6 +47,9 @@ class UserControllerSpec extends Specification {
     @SpringBean
     TokenValidationService tokenValidationService = Mock()
 
+    @SpringBean
+    TokenRevocationService tokenRevocationService = Mock()
+
     def userDTO
     def userSigUpResponseDto
     def userResponseDto
@@ -91,11 +103,68 @@ class UserControllerSpec extends Specification {
                 .andExpect(jsonPath('$.token').value("mocktoken"))
     }
 
+    def "Batch sign up accepts a JSON array"() {
+        given:
+        userService.signUpBatchStream(_) >> { Iterator<UserDTO> requests ->
+            assert requests.next().email == "test@example.com"
+            assert requests.next().email == "other@example.com"
+            assert !requests.hasNext()
+            [
+                    BatchSignUpResultDto.builder().index(0).code(200).email("test@example.com").user(userSigUpResponseDto).build(),
+                    BatchSignUpResultDto.builder().index(1).code(409).email("other@example.com").detail("User already exist").build()
+            ]
+        }
+
+        expect:
+        mockMvc.perform(post("/users/sign-up/batch")
+                .header(SecurityConfig.BATCH_API_KEY_HEADER, BATCH_API_KEY)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString([userDTO, UserDTO.builder().email("other@example.com").password("Password12").build()])))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$[0].user.token').value("mocktoken"))
+                .andExpect(jsonPath('$[1].code').value(409))
+    }
+
+    def "Batch sign up accepts newline delimited JSON"() {
+        given:
+        def body = [userDTO, UserDTO.builder().email("other@example.com").password("Password12").build()]
+                .collect { objectMapper.writeValueAsString(it) }
+                .join("\n")
+        userService.signUpBatchStream(_) >> { Iterator<UserDTO> requests ->
+            requests.collect { BatchSignUpResultDto.builder().code(200).email(it.email).build() }
+        }
+
+        expect:
+        mockMvc.perform(post("/users/sign-up/batch")
+                .header(SecurityConfig.BATCH_API_KEY_HEADER, BATCH_API_KEY)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.length()').value(2))
+                .andExpect(jsonPath('$[1].email').value("other@example.com"))
+    }
+
+    def "Batch sign up is rejected without the API key"() {
+        when:
+        def result = mockMvc.perform(post("/users/sign-up/batch")
+                .header(SecurityConfig.BATCH_API_KEY_HEADER, presentedKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString([userDTO])))
+
+        then:
+        result.andExpect(status().isUnauthorized())
+        0 * userService.signUpBatchStream(_)
+
+        where:
+        presentedKey << ["", "wrong-key"]
+    }
+
     def "Login with valid token returns user"() {
         given:
         def token = "Bearer validtoken"
-        tokenValidationService.validateJwtToken("validtoken") >> true
-        userService.login(token) >> userResponseDto
+        def principal = new JwtPrincipal(userId, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+        tokenValidationService.verifyJwtToken("validtoken") >> TokenVerification.valid(principal)
+        userService.login(principal) >> userResponseDto
 
         expect:
         mockMvc.perform(get("/users/login/")
@@ -107,7 +176,7 @@ class UserControllerSpec extends Specification {
     def "Login with invalid token returns 401"() {
         given:
         def token = "Bearer invalidtoken"
-        tokenValidationService.validateJwtToken("invalidtoken") >> false
+        tokenValidationService.verifyJwtToken("invalidtoken") >> TokenVerification.INVALID
 
         expect:
         mockMvc.perform(get("/users/login/{id}", userId)
@@ -116,11 +185,43 @@ class UserControllerSpec extends Specification {
     }
 
     def "Login without token returns 401"() {
+        given:
+        tokenValidationService.verifyJwtToken(null) >> TokenVerification.MISSING
+
         expect:
         mockMvc.perform(get("/users/login/{id}", userId))
                 .andExpect(status().isUnauthorized())
     }
 
+    def "Logout revokes the presented token"() {
+        given:
+        def principal = new JwtPrincipal(userId, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+        tokenValidationService.verifyJwtToken("validtoken") >> TokenVerification.valid(principal)
+
+        when:
+        def result = mockMvc.perform(post("/users/logout")
+                .header("Authorization", "Bearer validtoken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"refreshToken":"refreshtoken"}'))
+
+        then:
+        result.andExpect(status().isNoContent())
+        1 * tokenRevocationService.logout(principal, "refreshtoken")
+    }
+
+    def "A revoked token is rejected with 401"() {
+        given:
+        tokenValidationService.verifyJwtToken("revokedtoken") >> TokenVerification.REVOKED
+
+        when:
+        def result = mockMvc.perform(post("/users/logout")
+                .header("Authorization", "Bearer revokedtoken"))
+
+        then:
+        result.andExpect(status().isUnauthorized())
+        0 * tokenRevocationService.logout(*_)
+    }
+
     def "Sign up without email returns BadRequest"() {
         given:
         def invalidUser = UserDTO.builder()
@@ -128,6 +229,7 @@ class UserControllerSpec extends Specification {
                 .name("Test User")
                 .phones([])
                 .build()
+        userService.signUp({ it.email == null }) >> { throw new MissingRequiredFieldException("email cannot be empty") }
 
         expect:
         mockMvc.perform(post("/users/sign-up")
@@ -144,6 +246,7 @@ class UserControllerSpec extends Specification {
                 .name("Test User")
                 .phones([])
                 .build()
+        userService.signUp({ it.password == null }) >> { throw new MissingRequiredFieldException("password cannot be empty") }
 
         expect:
         mockMvc.perform(post("/users/sign-up")
@@ -156,7 +259,7 @@ class UserControllerSpec extends Specification {
     def "Invalid token returns 401 error with message"() {
         given:
         def fakeId = UUID.randomUUID()
-        tokenValidationService.validateJwtToken("Bearer invalidtoken") >> false
+        tokenValidationService.verifyJwtToken("invalidtoken") >> TokenVerification.INVALID
 
         expect:
         mockMvc.perform(get("/users/login/$fakeId")
@@ -0,0 +1,64 @@
+package com.globallogic.technique.exception
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.globallogic.technique.exception.user.UserAlreadyExistsException
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
+import spock.lang.Specification
+
+import java.time.Instant
+
+class ErrorResponseSpec extends Specification {
+
+    def objectMapper = new ObjectMapper()
+
+    def "The rendered body is the error JSON with a fresh timestamp and an escaped detail"() {
+        given:
+        def response = ErrorResponse.of(HttpStatus.BAD_REQUEST, detail)
+
+        when:
+        def body = objectMapper.readValue(response.render(), Map)
+
+        then:
+        body.keySet() == ["error"] as Set
+        body.error.size() == 1
+        body.error[0].keySet().toList() == ["timestamp", "code", "detail"]
+        Instant.parse(body.error[0].timestamp)
+        body.error[0].code == 400
+        body.error[0].detail == detail
+
+        where:
+        detail << ["email cannot be empty", 'Email format is invalid: "a\\b"@x\n.cl', "8–12 caracteres ñ", null]
+    }
+
+    def "withDetail reuses the pre-rendered body only for its own detail"() {
+        given:
+        def response = ErrorResponse.of(HttpStatus.CONFLICT, "User already exist")
+
+        expect:
+        response.withDetail("User already exist").is(response)
+        !response.withDetail("other").is(response)
+        objectMapper.readValue(response.withDetail("other").render(), Map).error[0].code == 409
+    }
+
+    def "The response entity carries the status and a JSON content type"() {
+        when:
+        def entity = ErrorResponse.of(HttpStatus.UNAUTHORIZED, "Invalid or expired token").toResponseEntity()
+
+        then:
+        entity.statusCodeValue == 401
+        entity.headers.getContentType() == MediaType.APPLICATION_JSON
+    }
+
+    def "Domain exceptions carry no stack trace and ignore suppressed exceptions, so instances can be shared"() {
+        given:
+        def exception = new UserAlreadyExistsException("User already exist")
+
+        when:
+        exception.addSuppressed(new IllegalStateException("other"))
+
+        then:
+        exception.stackTrace.length == 0
+        exception.suppressed.length == 0
+    }
+}
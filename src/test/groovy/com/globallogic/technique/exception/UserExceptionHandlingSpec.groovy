@@ -5,6 +5,7 @@ import com.globallogic.technique.dto.request.PhoneDto
 import com.globallogic.technique.dto.request.UserDTO
 import com.globallogic.technique.exception.user.InvalidEmailFormatException
 import com.globallogic.technique.exception.user.InvalidPasswordFormatException
+import com.globallogic.technique.exception.user.SignUpCapacityExceededException
 import com.globallogic.technique.exception.user.UserAlreadyExistsException
 import com.globallogic.technique.exception.user.UserNotFoundException
 import com.globallogic.technique.service.TokenValidationService
@@ -15,6 +16,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest
 import org.springframework.http.MediaType
 import org.springframework.test.web.servlet.MockMvc
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException
 import spock.lang.Specification
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
@@ -86,7 +88,7 @@ class UserExceptionHandlingSpec extends Specification {
     def "Should return 404 when the user is not found"() {
         given:
         def token = "Bearer validtoken"
-        userService.login(token) >> { throw new UserNotFoundException("User not found") }
+        userService.login(_) >> { throw new UserNotFoundException("User not found") }
 
         expect:
         mockMvc.perform(get("/users/login")
@@ -96,6 +98,31 @@ class UserExceptionHandlingSpec extends Specification {
                 .andExpect(jsonPath('$.error[0].detail').value("User not found"))
     }
 
+    def "Should return 503 when the sign-up hashing queue is full"() {
+        given:
+        userService.signUp(_) >> { throw new SignUpCapacityExceededException("Too many sign-up requests, try again later") }
+
+        expect:
+        mockMvc.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath('$.error[0].code').value(503))
+                .andExpect(jsonPath('$.error[0].detail').value("Too many sign-up requests, try again later"))
+    }
+
+    def "Should return 503 when an async request times out"() {
+        given:
+        userService.signUp(_) >> { throw new AsyncRequestTimeoutException() }
+
+        expect:
+        mockMvc.perform(post("/users/sign-up")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath('$.error[0].detail').value("The request timed out, try again later"))
+    }
+
     def "Should return 500 when a generic exception occurs"() {
         given:
         userService.signUp(_) >> { throw new RuntimeException("Something unexpected") }
@@ -0,0 +1,46 @@
+package com.globallogic.technique.loadtest
+
+import groovy.transform.CompileStatic
+import org.HdrHistogram.ConcurrentHistogram
+import org.HdrHistogram.Histogram
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Latency histogram (microseconds) and status code counts of one endpoint.
+ */
+@CompileStatic
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1)
+
+    final String name
+    final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3)
+    final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>()
+
+    EndpointStats(String name) {
+        this.name = name
+    }
+
+    /**
+     * Records the latency from the moment the request was scheduled to be sent, not from
+     * when it actually went out, so a stalled server is not hidden by coordinated omission.
+     */
+    void record(long intendedStartNanos, long completedNanos, int statusCode) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedStartNanos)
+        latencies.recordValue(Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS))
+        statusCodes.computeIfAbsent(statusCode) { new LongAdder() }.increment()
+    }
+
+    long getErrorCount() {
+        (long) statusCodes.findAll { code, count -> code < 200 || code >= 300 }
+                .values()
+                .sum(0L) { LongAdder count -> count.sum() }
+    }
+
+    double percentileMs(double percentile) {
+        latencies.getValueAtPercentile(percentile) / 1000.0d
+    }
+}
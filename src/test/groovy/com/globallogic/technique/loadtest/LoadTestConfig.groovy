@@ -0,0 +1,40 @@
+package com.globallogic.technique.loadtest
+
+import groovy.transform.CompileStatic
+
+import java.time.Duration
+
+/**
+ * Load test knobs, read from {@code loadtest.*} system properties so the Gradle
+ * {@code loadTest} task can forward them from {@code -P} flags. The forwarded
+ * {@code web.*} and {@code server.*} flags configure the application under test.
+ */
+@CompileStatic
+class LoadTestConfig {
+
+    double requestsPerSecond
+    double signUpRatio
+    Duration warmup
+    Duration duration
+    int seedUsers
+    Double signUpP99SloMs
+    Double loginP99SloMs
+    String executionMode
+
+    static LoadTestConfig fromSystemProperties() {
+        new LoadTestConfig(
+                requestsPerSecond: Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                signUpRatio: Double.parseDouble(System.getProperty("loadtest.signup-ratio", "0.1")),
+                warmup: Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5)),
+                duration: Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30)),
+                seedUsers: Integer.getInteger("loadtest.seed-users", 50),
+                signUpP99SloMs: optionalDouble("loadtest.slo.signup-p99-ms"),
+                loginP99SloMs: optionalDouble("loadtest.slo.login-p99-ms"),
+                executionMode: System.getProperty("web.execution-mode", "blocking"))
+    }
+
+    private static Double optionalDouble(String name) {
+        String value = System.getProperty(name)
+        value ? Double.valueOf(value) : null
+    }
+}
@@ -0,0 +1,61 @@
+package com.globallogic.technique.loadtest
+
+import groovy.transform.CompileStatic
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+
+/**
+ * Summary of one measured run, printed and written under {@code build/reports/loadtest}
+ * together with the full percentile distribution of each endpoint.
+ */
+@CompileStatic
+class LoadTestReport {
+
+    LoadTestConfig config
+    EndpointStats signUp
+    EndpointStats login
+    long requests
+    int maxConcurrency
+    Duration elapsed
+    long statementCount
+
+    String summary() {
+        StringBuilder out = new StringBuilder()
+        out << String.format("Offered %.0f req/s for %ds, sign-up ratio %.2f, %d requests in %.1fs, %s mode, max %d in flight%n",
+                config.requestsPerSecond, config.duration.seconds, config.signUpRatio, requests, elapsed.toMillis() / 1000.0d,
+                config.executionMode, maxConcurrency)
+        out << String.format("%-8s %8s %7s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms")
+        [signUp, login].each { EndpointStats stats ->
+            out << String.format("%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f%n", stats.name, stats.latencies.totalCount,
+                    stats.errorCount, stats.percentileMs(50d), stats.percentileMs(99d), stats.percentileMs(99.9d),
+                    stats.latencies.maxValue / 1000.0d)
+            out << "         status codes ${stats.statusCodes.collectEntries { code, count -> [code, count.sum()] }}\n"
+        }
+        out << String.format("Hibernate statements: %d (%.2f per request)%n",
+                statementCount, requests ? statementCount / (double) requests : 0.0d)
+        out.toString()
+    }
+
+    List<String> sloViolations() {
+        List<String> violations = []
+        if (config.signUpP99SloMs != null && signUp.percentileMs(99d) > config.signUpP99SloMs) {
+            violations << "sign-up p99 ${signUp.percentileMs(99d)} ms exceeds ${config.signUpP99SloMs} ms".toString()
+        }
+        if (config.loginP99SloMs != null && login.percentileMs(99d) > config.loginP99SloMs) {
+            violations << "login p99 ${login.percentileMs(99d)} ms exceeds ${config.loginP99SloMs} ms".toString()
+        }
+        violations
+    }
+
+    void writeTo(Path directory) {
+        Files.createDirectories(directory)
+        Files.writeString(directory.resolve("summary.txt"), summary())
+        [signUp, login].each { EndpointStats stats ->
+            new PrintStream(directory.resolve(stats.name + ".hgrm").toFile()).withCloseable { PrintStream stream ->
+                stats.latencies.outputPercentileDistribution(stream, 1000.0d)
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.globallogic.technique.loadtest
+
+import org.hibernate.SessionFactory
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.web.server.LocalServerPort
+import spock.lang.Requires
+import spock.lang.Specification
+
+import javax.persistence.EntityManagerFactory
+import java.nio.file.Paths
+
+/**
+ * Replays a sign-up/login mix against the application on a random port. Only runs through
+ * {@code ./gradlew loadTest}; see the README for the available {@code -Ploadtest.*} knobs.
+ */
+@Requires({ sys["loadtest.enabled"] == "true" })
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = ["spring.jpa.properties.hibernate.generate_statistics=true", "jwt.expiration=3600000"])
+class LoadTestSpec extends Specification {
+
+    @LocalServerPort
+    int port
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory
+
+    def "Sign-up and login latencies stay within the configured SLOs at a fixed arrival rate"() {
+        given:
+        def config = LoadTestConfig.fromSystemProperties()
+        def generator = new OpenLoopLoadGenerator(URI.create("http://localhost:$port"), config)
+        def statistics = entityManagerFactory.unwrap(SessionFactory).statistics
+        generator.seedUsers()
+        generator.run(config.warmup)
+        statistics.clear()
+
+        when:
+        def report = generator.run(config.duration)
+        report.statementCount = statistics.prepareStatementCount
+        report.writeTo(Paths.get(System.getProperty("loadtest.report-dir", "build/reports/loadtest")))
+        println report.summary()
+
+        then:
+        report.sloViolations().isEmpty()
+    }
+}
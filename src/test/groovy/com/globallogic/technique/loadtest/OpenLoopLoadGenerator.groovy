@@ -0,0 +1,104 @@
+package com.globallogic.technique.loadtest
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import groovy.transform.CompileStatic
+
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Open-loop generator: requests are issued on a fixed schedule regardless of how many are
+ * still in flight, and each latency is measured from its scheduled send time.
+ */
+@CompileStatic
+class OpenLoopLoadGenerator {
+
+    private static final String PASSWORD = "a2asfGfdfdf4"
+
+    private final URI baseUri
+    private final LoadTestConfig config
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build()
+    private final ObjectMapper objectMapper = new ObjectMapper()
+    private final AtomicLong emailSequence = new AtomicLong()
+    private final List<String> tokens = []
+
+    OpenLoopLoadGenerator(URI baseUri, LoadTestConfig config) {
+        this.baseUri = baseUri
+        this.config = config
+    }
+
+    void seedUsers() {
+        config.seedUsers.times {
+            HttpResponse<String> response = client.send(signUpRequest(), HttpResponse.BodyHandlers.ofString())
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with ${response.statusCode()}: ${response.body()}")
+            }
+            tokens << (objectMapper.readTree(response.body()).get("token").asText())
+        }
+    }
+
+    LoadTestReport run(Duration duration) {
+        EndpointStats signUp = new EndpointStats("sign-up")
+        EndpointStats login = new EndpointStats("login")
+        SplittableRandom random = new SplittableRandom(42)
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.requestsPerSecond)
+        long requests = (long) (duration.toNanos() / periodNanos)
+        List<CompletableFuture<?>> inFlight = new ArrayList<>((int) requests)
+        AtomicInteger concurrency = new AtomicInteger()
+        AtomicInteger maxConcurrency = new AtomicInteger()
+
+        long start = System.nanoTime()
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * periodNanos
+            long wait
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait)
+            }
+
+            boolean isSignUp = random.nextDouble() < config.signUpRatio
+            EndpointStats stats = isSignUp ? signUp : login
+            HttpRequest request = isSignUp ? signUpRequest() : loginRequest(tokens[random.nextInt(tokens.size())])
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math.&max)
+            inFlight << client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle { HttpResponse<Void> response, Throwable error ->
+                        concurrency.decrementAndGet()
+                        stats.record(intendedStart, System.nanoTime(), response != null ? response.statusCode() : -1)
+                    }
+        }
+        CompletableFuture.allOf(inFlight as CompletableFuture[]).get(2, TimeUnit.MINUTES)
+
+        new LoadTestReport(config: config, signUp: signUp, login: login, requests: requests,
+                maxConcurrency: maxConcurrency.get(), elapsed: Duration.ofNanos(System.nanoTime() - start))
+    }
+
+    private HttpRequest signUpRequest() {
+        String body = objectMapper.writeValueAsString([
+                name    : "Load Test",
+                email   : "load-${emailSequence.incrementAndGet()}-${UUID.randomUUID()}@example.com".toString(),
+                password: PASSWORD,
+                phones  : [[number: 87650009, citycode: 7, contrycode: "25"]]
+        ])
+        HttpRequest.newBuilder(baseUri.resolve("/users/sign-up"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build()
+    }
+
+    private HttpRequest loginRequest(String token) {
+        HttpRequest.newBuilder(baseUri.resolve("/users/login"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build()
+    }
+}
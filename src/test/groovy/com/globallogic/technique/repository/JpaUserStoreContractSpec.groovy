@@ -0,0 +1,30 @@
+package com.globallogic.technique.repository
+
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.jdbc.core.JdbcTemplate
+
+@SpringBootTest
+class JpaUserStoreContractSpec extends UserStoreContractSpec {
+
+    @Autowired
+    JpaUserStore userStore
+
+    @Autowired
+    JdbcLastLoginStore lastLoginStore
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    def "user ids and the columns referencing them are 16 bytes wide"() {
+        when:
+        def widths = jdbcTemplate.queryForList(
+                "select table_name || '.' || column_name as name, character_maximum_length as width "
+                        + "from information_schema.columns where lower(column_name) in ('id', 'user_id') "
+                        + "and lower(table_name) in ('user', 'user_phones', 'refresh_token', 'token_revocation')")
+                .collectEntries { [(it.NAME.toLowerCase()): it.WIDTH] }
+
+        then:
+        widths == ['user.id': 16, 'user_phones.user_id': 16, 'refresh_token.user_id': 16, 'token_revocation.user_id': 16]
+    }
+}
@@ -0,0 +1,150 @@
+package com.globallogic.technique.repository
+
+import com.globallogic.technique.model.Phone
+import com.globallogic.technique.model.User
+import org.springframework.dao.DuplicateKeyException
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.time.temporal.ChronoUnit
+
+/**
+ * What the services rely on from a user store, run once per backend by the subclasses so
+ * the file store behaves exactly like JPA.
+ */
+abstract class UserStoreContractSpec extends Specification {
+
+    abstract UserStore getUserStore()
+
+    abstract LastLoginStore getLastLoginStore()
+
+    def "insert assigns an id and the user can be read back by id and email"() {
+        given:
+        def user = newUser()
+
+        when:
+        userStore.insert(user)
+
+        then:
+        user.id != null
+        with(userStore.findById(user.id).get()) {
+            email == user.email
+            name == "Juan"
+            password == "hashed"
+            active
+            created == user.created
+            lastLogin == user.lastLogin
+        }
+        userStore.findByEmail(user.email).get().id == user.id
+    }
+
+    def "unknown ids and emails are not found"() {
+        expect:
+        !userStore.findById(UUID.randomUUID()).isPresent()
+        !userStore.findByEmail(uniqueEmail()).isPresent()
+        !userStore.findLoginView(UUID.randomUUID()).isPresent()
+    }
+
+    def "inserting a taken email throws DuplicateKeyException"() {
+        given:
+        def email = uniqueEmail()
+        userStore.insert(newUser(email))
+
+        when:
+        userStore.insert(newUser(email))
+
+        then:
+        thrown(DuplicateKeyException)
+        userStore.findExistingEmails([email]) == [email] as Set
+    }
+
+    def "insertAll stores every user"() {
+        given:
+        def users = [newUser(), newUser(), newUser()]
+
+        when:
+        userStore.insertAll(users)
+
+        then:
+        users.every { it.id != null && userStore.findById(it.id).isPresent() }
+    }
+
+    def "insertAll stores none of the users when one email is taken"() {
+        given:
+        def taken = uniqueEmail()
+        userStore.insert(newUser(taken))
+        def fresh = uniqueEmail()
+
+        when:
+        userStore.insertAll([newUser(fresh), newUser(taken)])
+
+        then:
+        thrown(DuplicateKeyException)
+        !userStore.findByEmail(fresh).isPresent()
+
+        when:
+        userStore.insert(newUser(fresh))
+
+        then:
+        userStore.findByEmail(fresh).isPresent()
+    }
+
+    def "findExistingEmails returns only the taken emails"() {
+        given:
+        def taken = uniqueEmail()
+        def fresh = uniqueEmail()
+        userStore.insert(newUser(taken))
+
+        expect:
+        userStore.findExistingEmails([taken, fresh]) == [taken] as Set
+    }
+
+    def "findLoginView returns what the login response needs"() {
+        given:
+        def user = newUser()
+        userStore.insert(user)
+
+        when:
+        def view = userStore.findLoginView(user.id).get()
+
+        then:
+        view.id == user.id
+        view.email == user.email
+        view.password == "hashed"
+        view.created == user.created
+        view.isActive
+        view.phones*.number == [12345678L, 87654321L]
+        view.phones*.contrycode == ["57", "56"]
+    }
+
+    def "updateLastLogins never moves lastLogin backwards"() {
+        given:
+        def user = newUser()
+        userStore.insert(user)
+        def later = user.lastLogin.plusMinutes(5)
+
+        when:
+        lastLoginStore.updateLastLogins([(user.id): later])
+        lastLoginStore.updateLastLogins([(user.id): user.lastLogin.plusMinutes(1)])
+
+        then:
+        userStore.findById(user.id).get().lastLogin == later
+    }
+
+    protected static User newUser(String email = uniqueEmail()) {
+        def now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS)
+        User.builder()
+                .name("Juan")
+                .email(email)
+                .password("hashed")
+                .isActive(true)
+                .created(now)
+                .lastLogin(now)
+                .phones([new Phone(12345678L, 1, "57"), new Phone(87654321L, 2, "56")])
+                .build()
+    }
+
+    protected static String uniqueEmail() {
+        "store-" + UUID.randomUUID() + "@example.com"
+    }
+}
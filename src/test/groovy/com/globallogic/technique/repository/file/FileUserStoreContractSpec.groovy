@@ -0,0 +1,34 @@
+package com.globallogic.technique.repository.file
+
+import com.globallogic.technique.repository.LastLoginStore
+import com.globallogic.technique.repository.UserStore
+import com.globallogic.technique.repository.UserStoreContractSpec
+import spock.lang.TempDir
+
+import java.nio.file.Path
+
+class FileUserStoreContractSpec extends UserStoreContractSpec {
+
+    @TempDir
+    Path directory
+
+    FileUserStore fileUserStore
+
+    def setup() {
+        fileUserStore = new FileUserStore(directory, 4096, true, 0.5, 1024)
+    }
+
+    def cleanup() {
+        fileUserStore.close()
+    }
+
+    @Override
+    UserStore getUserStore() {
+        fileUserStore
+    }
+
+    @Override
+    LastLoginStore getLastLoginStore() {
+        fileUserStore
+    }
+}
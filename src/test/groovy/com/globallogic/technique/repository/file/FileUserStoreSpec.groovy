@@ -0,0 +1,190 @@
+package com.globallogic.technique.repository.file
+
+import com.globallogic.technique.model.Phone
+import com.globallogic.technique.model.User
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.time.LocalDateTime
+import java.time.temporal.ChronoUnit
+
+class FileUserStoreSpec extends Specification {
+
+    @TempDir
+    Path directory
+
+    def "users written without a checkpoint are recovered by replaying the log"() {
+        given:
+        def store = open()
+        def user = store.insert(newUser("replay@example.com"))
+        def lastLogin = user.lastLogin.plusMinutes(1)
+        store.updateLastLogins([(user.id): lastLogin])
+
+        when: "the process dies without closing the store"
+        def recovered = open()
+
+        then:
+        !Files.exists(directory.resolve(FileUserStore.CHECKPOINT_FILE))
+        recovered.size() == 1
+        recovered.findByEmail("replay@example.com").get().lastLogin == lastLogin
+        recovered.findLoginView(user.id).get().phones*.number == [12345678L]
+    }
+
+    def "a restart loads the checkpoint and replays only the records written after it"() {
+        given:
+        def store = open()
+        def first = store.insert(newUser("first@example.com"))
+        store.checkpoint()
+        def second = store.insert(newUser("second@example.com"))
+        store.updateLastLogins([(first.id): first.lastLogin.plusMinutes(2)])
+
+        when:
+        def recovered = open()
+
+        then:
+        recovered.size() == 2
+        recovered.findById(second.id).isPresent()
+        recovered.findById(first.id).get().lastLogin == first.lastLogin.plusMinutes(2)
+    }
+
+    def "a record torn by a crash ends the log and is overwritten by the next append"() {
+        given:
+        def store = open()
+        store.insert(newUser("kept@example.com"))
+        def end = logEnd()
+        writeAt(end, ByteBuffer.allocate(12).putInt(200).putInt(42).putInt(7).flip())
+
+        when:
+        def recovered = open()
+        recovered.insert(newUser("after@example.com"))
+        def reopened = open()
+
+        then:
+        recovered.size() == 2
+        reopened.size() == 2
+        reopened.findByEmail("after@example.com").isPresent()
+    }
+
+    def "a batch cut short by a crash is dropped whole and does not come back after later appends"() {
+        given:
+        def store = open()
+        store.insert(newUser("kept@example.com"))
+        def end = logEnd()
+        store.insertAll([newUser("first@example.com"), newUser("second@example.com")])
+        def batchEnd = logEnd()
+        writeAt(headerLost ? end : batchEnd - 4, ByteBuffer.allocate(4).putInt(damage).flip())
+
+        when:
+        def recovered = open()
+        recovered.insert(newUser("after@example.com"))
+        def reopened = open()
+
+        then:
+        recovered.size() == 2
+        reopened.size() == 2
+        reopened.findByEmail("after@example.com").isPresent()
+        !reopened.findByEmail("first@example.com").isPresent()
+        !reopened.findByEmail("second@example.com").isPresent()
+
+        where: "the header that commits the batch is missing, or its last record did not reach the disk"
+        headerLost | damage
+        true       | 0
+        false      | 0x5A5A5A5A
+    }
+
+    def "compaction drops superseded records and keeps the latest lastLogin"() {
+        given:
+        def store = open()
+        def user = store.insert(newUser("compact@example.com"))
+        def latest = user.lastLogin
+        (1..50).each {
+            latest = user.lastLogin.plusSeconds(it)
+            store.updateLastLogins([(user.id): latest])
+        }
+        def before = store.garbageBytes()
+
+        when:
+        store.compact()
+
+        then:
+        before > 0
+        store.garbageBytes() == 0
+        store.findById(user.id).get().lastLogin == latest
+
+        when:
+        store.insert(newUser("later@example.com"))
+        def recovered = open()
+
+        then:
+        recovered.size() == 2
+        recovered.findById(user.id).get().lastLogin == latest
+        !Files.exists(directory.resolve("users.log.compacting"))
+    }
+
+    def "maintain compacts once enough of the log is garbage"() {
+        given:
+        def store = new FileUserStore(directory, 4096, true, 0.5, 256)
+        def user = store.insert(newUser("maintain@example.com"))
+        (1..20).each { store.updateLastLogins([(user.id): user.lastLogin.plusSeconds(it)]) }
+
+        when:
+        store.maintain()
+
+        then:
+        store.garbageBytes() == 0
+    }
+
+    def "a corrupt checkpoint is ignored and the whole log is replayed"() {
+        given:
+        def store = open()
+        store.insert(newUser("corrupt@example.com"))
+        store.checkpoint()
+        def checkpoint = directory.resolve(FileUserStore.CHECKPOINT_FILE)
+        def bytes = Files.readAllBytes(checkpoint)
+        bytes[bytes.length - 1] ^= 0xFF
+        Files.write(checkpoint, bytes)
+
+        when:
+        def recovered = open()
+
+        then:
+        recovered.size() == 1
+        recovered.findByEmail("corrupt@example.com").isPresent()
+    }
+
+    private FileUserStore open() {
+        new FileUserStore(directory, 4096, true, 0.5, 1024 * 1024)
+    }
+
+    private int logEnd() {
+        def log = UserLog.open(directory.resolve(FileUserStore.LOG_FILE), 0, 4096)
+        log.scan(UserLog.HEADER_LENGTH, { offset, record -> })
+        def end = log.position()
+        log.close()
+        end
+    }
+
+    private void writeAt(int position, ByteBuffer bytes) {
+        FileChannel.open(directory.resolve(FileUserStore.LOG_FILE), StandardOpenOption.WRITE).withCloseable {
+            it.write(bytes, position)
+        }
+    }
+
+    private static User newUser(String email) {
+        def now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS)
+        User.builder()
+                .name("Juan")
+                .email(email)
+                .password("hashed")
+                .isActive(true)
+                .created(now)
+                .lastLogin(now)
+                .phones([new Phone(12345678L, 1, "57")])
+                .build()
+    }
+}
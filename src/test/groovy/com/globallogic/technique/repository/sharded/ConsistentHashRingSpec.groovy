@@ -0,0 +1,43 @@
+package com.globallogic.technique.repository.sharded
+
+import spock.lang.Specification
+
+class ConsistentHashRingSpec extends Specification {
+
+    def ids = (1..10_000).collect { UUID.randomUUID() }
+
+    def "keys spread evenly over the nodes"() {
+        given:
+        def ring = new ConsistentHashRing(["a": "a", "b": "b", "c": "c"], 128)
+
+        when:
+        def counts = ids.countBy { ring.nodeFor(it) }
+
+        then:
+        counts.keySet() == ["a", "b", "c"] as Set
+        counts.values().every { it > 2_500 && it < 4_200 }
+    }
+
+    def "adding a node only moves keys to the new node, about a quarter of them"() {
+        given:
+        def before = new ConsistentHashRing(["a": "a", "b": "b", "c": "c"], 128)
+        def after = new ConsistentHashRing(["a": "a", "b": "b", "c": "c", "d": "d"], 128)
+
+        when:
+        def moved = ids.findAll { before.nodeFor(it) != after.nodeFor(it) }
+
+        then:
+        moved.every { after.nodeFor(it) == "d" }
+        moved.size() > 1_800 && moved.size() < 3_300
+    }
+
+    def "placement depends only on node names"() {
+        given:
+        def first = new ConsistentHashRing(["a": 1, "b": 2], 64)
+        def second = new ConsistentHashRing(["b": 2, "a": 1], 64)
+
+        expect:
+        ids.every { first.nodeFor(it) == second.nodeFor(it) }
+        ["x@example.com", "y@example.com"].every { first.nodeFor(it) == second.nodeFor(it) }
+    }
+}
@@ -0,0 +1,26 @@
+package com.globallogic.technique.repository.sharded
+
+import com.globallogic.technique.repository.LastLoginStore
+import com.globallogic.technique.repository.UserStore
+import com.globallogic.technique.repository.UserStoreContractSpec
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import spock.lang.Shared
+
+class ShardedUserStoreContractSpec extends UserStoreContractSpec {
+
+    @Shared
+    ShardedUserStore shardedUserStore = new ShardedUserStore(new UserShards(
+            ["shard0", "shard1", "shard2"].collect { name ->
+                new UserShard(name, new DriverManagerDataSource("jdbc:h2:mem:contract-${name};DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""))
+            }, UserShards.DEFAULT_VIRTUAL_NODES))
+
+    @Override
+    UserStore getUserStore() {
+        shardedUserStore
+    }
+
+    @Override
+    LastLoginStore getLastLoginStore() {
+        shardedUserStore
+    }
+}
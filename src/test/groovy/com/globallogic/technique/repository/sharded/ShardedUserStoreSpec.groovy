@@ -0,0 +1,137 @@
+package com.globallogic.technique.repository.sharded
+
+import com.globallogic.technique.model.Phone
+import com.globallogic.technique.model.User
+import com.globallogic.technique.util.UuidBytes
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import spock.lang.Specification
+
+import java.time.Instant
+import java.time.LocalDateTime
+
+class ShardedUserStoreSpec extends Specification {
+
+    String prefix = "sharded-" + UUID.randomUUID()
+
+    def "a user lives on the shard of its id and its email on the shard of the email"() {
+        given:
+        def shards = shards("shard0", "shard1", "shard2")
+        def store = new ShardedUserStore(shards)
+
+        when:
+        def users = (1..30).collect { store.insert(newUser("user${it}@example.com")) }
+
+        then:
+        users.every { user ->
+            shards.all().every { shard ->
+                (count(shard, "user") { it == user.id } == 1) == (shard == shards.forUser(user.id)) &&
+                        (emailsOf(shard).containsKey(user.email)) == (shard == shards.forEmail(user.email))
+            }
+        }
+        shards.all().every { shard -> users.any { shards.forUser(it.id) == shard } }
+        users.every { store.findByEmail(it.email).get().id == it.id }
+    }
+
+    def "a failed insert releases the email claims"() {
+        given:
+        def shards = shards("shard0", "shard1")
+        def store = new ShardedUserStore(shards)
+        def broken = newUser("broken@example.com")
+        broken.phones = [new Phone(1L, 1, "x" * 300)]
+
+        when:
+        store.insert(broken)
+
+        then:
+        thrown(RuntimeException)
+        store.findExistingEmails(["broken@example.com"]).isEmpty()
+        !store.findById(broken.id).isPresent()
+    }
+
+    def "the sweep releases an email claimed by a sign-up that died before inserting its user"() {
+        given:
+        def shards = shards("shard0", "shard1")
+        def store = new ShardedUserStore(shards)
+        def kept = store.insert(newUser("kept@example.com"))
+        shards.forEmail("orphan@example.com").claimEmail("orphan@example.com", UUID.randomUUID())
+
+        when: "the claim may still belong to a sign-up in progress"
+        def released = store.releaseOrphanedEmails(Instant.now().minusSeconds(60))
+
+        then:
+        released == 0
+        store.findExistingEmails(["orphan@example.com", "kept@example.com"]).size() == 2
+
+        when:
+        released = store.releaseOrphanedEmails(Instant.now().plusSeconds(1))
+
+        then:
+        released == 1
+        store.findExistingEmails(["orphan@example.com", "kept@example.com"]) == ["kept@example.com"] as Set
+        store.findByEmail("kept@example.com").get().id == kept.id
+
+        when:
+        def retried = store.insert(newUser("orphan@example.com"))
+
+        then:
+        store.findByEmail("orphan@example.com").get().id == retried.id
+        store.releaseOrphanedEmails(Instant.now().plusSeconds(2)) == 0
+    }
+
+    def "rebalancing after adding a shard moves the misplaced users and emails"() {
+        given:
+        def before = new ShardedUserStore(shards("shard0", "shard1"))
+        def users = (1..60).collect { before.insert(newUser("move${it}@example.com")) }
+
+        def shards = shards("shard0", "shard1", "shard2")
+        def after = new ShardedUserStore(shards)
+        def misplaced = users.count { !after.findById(it.id).isPresent() }
+
+        when:
+        def result = new ShardRebalancer(shards).rebalance()
+
+        then:
+        misplaced > 0
+        result.movedUsers == misplaced
+        result.movedEmails > 0
+        users.every { after.findById(it.id).get().phones == it.phones }
+        users.every { after.findByEmail(it.email).get().id == it.id }
+        shards.all().sum { count(it, "user") { true } } == 60
+
+        when:
+        def again = new ShardRebalancer(shards).rebalance()
+
+        then:
+        again.movedUsers == 0
+        again.movedEmails == 0
+    }
+
+    private UserShards shards(String... names) {
+        new UserShards(names.collect { name ->
+            new UserShard(name, new DriverManagerDataSource("jdbc:h2:mem:${prefix}-${name};DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""))
+        }, UserShards.DEFAULT_VIRTUAL_NODES)
+    }
+
+    private static int count(UserShard shard, String table, Closure<Boolean> filter) {
+        new JdbcTemplate(shard.dataSource).queryForList("select id from " + table, byte[])
+                .count { filter(UuidBytes.fromBytes(it)) }
+    }
+
+    private static Map<String, UUID> emailsOf(UserShard shard) {
+        shard.findEmails()
+    }
+
+    private static User newUser(String email) {
+        def now = LocalDateTime.now()
+        User.builder()
+                .name("Juan")
+                .email(email)
+                .password("hashed")
+                .isActive(true)
+                .created(now)
+                .lastLogin(now)
+                .phones([new Phone(12345678L, 1, "57")])
+                .build()
+    }
+}
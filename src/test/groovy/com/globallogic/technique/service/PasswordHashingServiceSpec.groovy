@@ -0,0 +1,82 @@
+package com.globallogic.technique.service
+
+import com.globallogic.technique.exception.user.SignUpCapacityExceededException
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.security.crypto.password.PasswordEncoder
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class PasswordHashingServiceSpec extends Specification {
+
+    def meterRegistry = new SimpleMeterRegistry()
+    def encoder = Mock(PasswordEncoder)
+
+    def "Hashes the password on the hashing executor and records its latency"() {
+        given:
+        def service = new PasswordHashingService(encoder, meterRegistry, 1, 1)
+        String hashingThread = null
+        encoder.encode("Password12") >> { hashingThread = Thread.currentThread().name; "hashed" }
+
+        when:
+        def result = service.hash("Password12")
+
+        then:
+        result == "hashed"
+        hashingThread.startsWith("password-hashing-")
+        meterRegistry.get("password.hashing").timer().count() == 1
+
+        cleanup:
+        service.shutdown()
+    }
+
+    def "Hashes a batch larger than the queue in parallel and keeps the input order"() {
+        given:
+        def service = new PasswordHashingService(encoder, meterRegistry, 2, 1)
+        encoder.encode(_) >> { String raw -> "hashed-" + raw }
+        def passwords = (1..10).collect { "password-$it".toString() }
+
+        when:
+        def hashes = service.hashAll(passwords)
+
+        then:
+        hashes == passwords.collect { "hashed-" + it }
+        meterRegistry.get("password.hashing.rejected").counter().count() == 0
+
+        cleanup:
+        service.shutdown()
+    }
+
+    def "Rejects immediately when every hashing thread is busy and the queue is full"() {
+        given:
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        encoder.encode(_) >> { started.countDown(); release.await(5, TimeUnit.SECONDS); "hashed" }
+
+        def service = new PasswordHashingService(encoder, meterRegistry, 1, 1)
+        def callers = Executors.newFixedThreadPool(2)
+        def running = callers.submit({ service.hash("first") } as Callable)
+        started.await(5, TimeUnit.SECONDS)
+        def queued = callers.submit({ service.hash("second") } as Callable)
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1) {
+            Thread.sleep(5)
+        }
+
+        when:
+        service.hash("third")
+
+        then:
+        thrown(SignUpCapacityExceededException)
+        meterRegistry.get("password.hashing.rejected").counter().count() == 1
+
+        cleanup:
+        release.countDown()
+        running?.get(5, TimeUnit.SECONDS)
+        queued?.get(5, TimeUnit.SECONDS)
+        callers.shutdown()
+        service.shutdown()
+    }
+}
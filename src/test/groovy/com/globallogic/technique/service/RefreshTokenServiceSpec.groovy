@@ -0,0 +1,108 @@
+package com.globallogic.technique.service
+
+import com.globallogic.technique.exception.token.InvalidRefreshTokenException
+import com.globallogic.technique.repository.RefreshTokenRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import spock.lang.Specification
+
+@SpringBootTest
+class RefreshTokenServiceSpec extends Specification {
+
+    @Autowired
+    RefreshTokenService refreshTokenService
+
+    @Autowired
+    RefreshTokenRepository refreshTokenRepository
+
+    def "Issued tokens are opaque and only their digest is stored"() {
+        given:
+        def userId = UUID.randomUUID()
+
+        when:
+        def token = refreshTokenService.issue(userId)
+
+        then:
+        token.length() == 43
+        !refreshTokenRepository.findById(token).isPresent()
+        refreshTokenRepository.findAll().any { it.userId == userId && it.tokenHash != token }
+    }
+
+    def "A refresh token is rotated on use and cannot be used twice"() {
+        given:
+        def userId = UUID.randomUUID()
+        def token = refreshTokenService.issue(userId)
+
+        when:
+        def rotation = refreshTokenService.rotate(token)
+
+        then:
+        rotation.userId == userId
+        rotation.refreshToken != token
+        refreshTokenService.rotate(rotation.refreshToken).userId == userId
+
+        when:
+        refreshTokenService.rotate(token)
+
+        then:
+        def e = thrown(InvalidRefreshTokenException)
+        e.message == RefreshTokenService.INVALID_REFRESH_TOKEN_MESSAGE
+    }
+
+    def "A token is revoked by the user it was issued to and by no one else"() {
+        given:
+        def userId = UUID.randomUUID()
+        def token = refreshTokenService.issue(userId)
+        def kept = refreshTokenService.issue(userId)
+
+        when:
+        refreshTokenService.revoke(UUID.randomUUID(), kept)
+        refreshTokenService.revoke(userId, token)
+
+        then:
+        refreshTokenService.rotate(kept).userId == userId
+
+        when:
+        refreshTokenService.rotate(token)
+
+        then:
+        thrown(InvalidRefreshTokenException)
+    }
+
+    def "Tokens issued by another instance are found in the table when not in the local index"() {
+        given:
+        def userId = UUID.randomUUID()
+        def token = new RefreshTokenService(refreshTokenRepository, 60_000, 100).issue(userId)
+
+        expect:
+        refreshTokenService.rotate(token).userId == userId
+    }
+
+    def "Expired, unknown and missing refresh tokens are rejected and expired rows are cleaned up"() {
+        given:
+        def shortLived = new RefreshTokenService(refreshTokenRepository, 50, 100)
+        def token = shortLived.issue(UUID.randomUUID())
+        Thread.sleep(100)
+
+        when:
+        shortLived.rotate(token)
+
+        then:
+        thrown(InvalidRefreshTokenException)
+
+        when:
+        refreshTokenService.rotate(presented)
+
+        then:
+        thrown(InvalidRefreshTokenException)
+
+        when:
+        refreshTokenService.deleteExpired()
+
+        then:
+        refreshTokenRepository.findAll().every { it.expiresAt.isAfter(java.time.Instant.now()) }
+
+        where:
+        presented << ["unknown-token", "", null]
+    }
+}
@@ -0,0 +1,82 @@
+package com.globallogic.technique.service
+
+import com.globallogic.technique.config.jwt.TokenRevocationList
+import com.globallogic.technique.config.jwt.TokenVerification
+import com.globallogic.technique.exception.token.InvalidRefreshTokenException
+import com.globallogic.technique.repository.TokenRevocationRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import spock.lang.Specification
+
+@SpringBootTest
+class TokenRevocationServiceSpec extends Specification {
+
+    @Autowired
+    TokenRevocationService tokenRevocationService
+
+    @Autowired
+    TokenValidationService tokenValidationService
+
+    @Autowired
+    RefreshTokenService refreshTokenService
+
+    @Autowired
+    TokenRevocationRepository tokenRevocationRepository
+
+    def "Revoking a token rejects that token only and keeps the refresh tokens of the user"() {
+        given:
+        def userId = UUID.randomUUID()
+        def token = tokenValidationService.generateJwtToken(userId)
+        def sameSecond = tokenValidationService.generateJwtToken(userId)
+        def refreshToken = refreshTokenService.issue(userId)
+        def principal = tokenValidationService.verifyJwtToken(token).principal
+
+        when:
+        tokenRevocationService.revokeToken(principal)
+
+        then:
+        tokenValidationService.verifyJwtToken(token).outcome == TokenVerification.Outcome.REVOKED
+        tokenValidationService.verifyJwtToken(sameSecond).outcome == TokenVerification.Outcome.VALID
+        tokenRevocationRepository.findById(principal.tokenId).get().userId == userId
+        refreshTokenService.rotate(refreshToken).userId == userId
+    }
+
+    def "A logout revokes the access token and deletes the refresh token of its session only"() {
+        given:
+        def userId = UUID.randomUUID()
+        def token = tokenValidationService.generateJwtToken(userId)
+        def refreshToken = refreshTokenService.issue(userId)
+        def otherSession = refreshTokenService.issue(userId)
+        def principal = tokenValidationService.verifyJwtToken(token).principal
+
+        when:
+        tokenRevocationService.logout(principal, refreshToken)
+
+        then:
+        tokenValidationService.verifyJwtToken(token).outcome == TokenVerification.Outcome.REVOKED
+        refreshTokenService.rotate(otherSession).userId == userId
+
+        when:
+        refreshTokenService.rotate(refreshToken)
+
+        then:
+        thrown(InvalidRefreshTokenException)
+    }
+
+    def "Revocations are reloaded from the table into an empty list"() {
+        given:
+        def principal = tokenValidationService.verifyJwtToken(tokenValidationService.generateJwtToken(UUID.randomUUID())).principal
+        tokenRevocationService.revokeToken(principal)
+        def restartedList = new TokenRevocationList(100)
+        def restarted = new TokenRevocationService(tokenRevocationRepository, restartedList, refreshTokenService, 240_000)
+
+        expect:
+        !restartedList.isRevoked(principal)
+
+        when:
+        restarted.reload()
+
+        then:
+        restartedList.isRevoked(principal)
+    }
+}
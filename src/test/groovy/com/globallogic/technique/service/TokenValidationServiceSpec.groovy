@@ -1,8 +1,24 @@
 package com.globallogic.technique.service
 
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.globallogic.technique.config.jwt.JwtKeyRing
+import com.globallogic.technique.config.jwt.JwtVerifierMode
+import com.globallogic.technique.config.jwt.TokenRevocationList
+import com.globallogic.technique.config.jwt.TokenVerification
 import com.globallogic.technique.model.User
+import com.globallogic.technique.util.UuidV7
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
 import spock.lang.Specification
 
+import java.security.AlgorithmParameters
+import java.security.KeyFactory
+import java.security.spec.ECGenParameterSpec
+import java.security.spec.ECParameterSpec
+import java.security.spec.ECPoint
+import java.security.spec.ECPublicKeySpec
+import java.time.Instant
+
 
 class TokenValidationServiceSpec extends Specification {
 
@@ -33,6 +49,138 @@ class TokenValidationServiceSpec extends Specification {
         tokenService.getUserId("Bearer " + token) == id.toString()
     }
 
+    def "Parsing a valid token exposes its subject, issue and expiry claims"() {
+        given:
+        UUID id = UUID.randomUUID()
+        def user = User.builder()
+                .id(id)
+                .email("claims@example.com")
+                .build()
+        def token = tokenService.generateJwtToken(user)
+
+        when:
+        def principal = tokenService.parseJwtToken(token)
+
+        then:
+        principal.present
+        principal.get().userId == id
+        principal.get().issuedAt != null
+        principal.get().expiresAt.isAfter(principal.get().issuedAt)
+    }
+
+    def "Parsing an invalid or missing token returns empty"() {
+        expect:
+        !tokenService.parseJwtToken(token).present
+
+        where:
+        token << [null, "", "invalid.token.value"]
+    }
+
+    def "Repeated validations of the same token are served from the cache"() {
+        given:
+        def token = tokenService.generateJwtToken(User.builder().id(UUID.randomUUID()).build())
+
+        when:
+        def first = tokenService.parseJwtToken(token)
+        def second = tokenService.parseJwtToken(token)
+
+        then:
+        first == second
+        tokenService.tokenCacheStats().missCount() == 1
+        tokenService.tokenCacheStats().hitCount() == 1
+    }
+
+    def "A cached token is rejected once its expiry has passed"() {
+        given:
+        def shortLivedService = new TokenValidationService(secret, 1000)
+        def token = shortLivedService.generateJwtToken(User.builder().id(UUID.randomUUID()).build())
+
+        expect:
+        shortLivedService.validateJwtToken(token)
+
+        when:
+        sleep(1100)
+
+        then:
+        !shortLivedService.validateJwtToken(token)
+        shortLivedService.tokenCacheStats().hitCount() == 0
+    }
+
+    def "Invalid tokens are never cached"() {
+        when:
+        tokenService.validateJwtToken("invalid.token.value")
+        tokenService.validateJwtToken("invalid.token.value")
+
+        then:
+        tokenService.tokenCacheStats().hitCount() == 0
+    }
+
+    def "Verification with #mode tells valid, missing, forged and expired tokens apart"() {
+        given:
+        def service = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, mode)
+        def valid = service.generateJwtToken(UUID.randomUUID())
+        def expired = new TokenValidationService(secret, -60_000).generateJwtToken(UUID.randomUUID())
+
+        expect:
+        service.verifyJwtToken(valid).outcome == TokenVerification.Outcome.VALID
+        service.verifyJwtToken(null).outcome == TokenVerification.Outcome.MISSING
+        service.verifyJwtToken("invalid.token.value").outcome == TokenVerification.Outcome.INVALID
+        service.verifyJwtToken(valid.substring(0, valid.length() - 2) + "xx").outcome == TokenVerification.Outcome.INVALID
+        service.verifyJwtToken(expired).outcome == TokenVerification.Outcome.EXPIRED
+
+        where:
+        mode << JwtVerifierMode.values()
+    }
+
+    def "With #mode the subject of a #kind user id reads back as the same id"() {
+        given:
+        def service = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, mode)
+        def token = service.generateJwtToken(userId)
+
+        expect:
+        service.verifyJwtToken(token).principal.userId == userId
+        service.getUserId("Bearer " + token) == userId.toString()
+
+        where:
+        [mode, kind] << [JwtVerifierMode.values(), ['random (v4)', 'time-ordered (v7)']].combinations()
+        userId = kind.contains('v7') ? UuidV7.next() : UUID.randomUUID()
+    }
+
+    def "A revoked token is rejected, even when cached, while other tokens of the same user are accepted"() {
+        given:
+        def revocationList = new TokenRevocationList(100)
+        def service = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE,
+                mode, null, revocationList)
+        def userId = UUID.randomUUID()
+        def token = service.generateJwtToken(userId)
+        def principal = service.verifyJwtToken(token).principal
+        def sameSecond = service.generateJwtToken(userId)
+
+        when:
+        revocationList.revoke(new TokenRevocationList.Revocation(principal.tokenId, principal.expiresAt))
+
+        then:
+        service.verifyJwtToken(token).outcome == TokenVerification.Outcome.REVOKED
+        service.parseJwtToken(token) == Optional.empty()
+        service.verifyJwtToken(sameSecond).outcome == TokenVerification.Outcome.VALID
+        service.verifyJwtToken(service.generateJwtToken(userId)).outcome == TokenVerification.Outcome.VALID
+
+        where:
+        mode << JwtVerifierMode.values()
+    }
+
+    def "Every issued token carries its own jti"() {
+        given:
+        def userId = UUID.randomUUID()
+
+        when:
+        def tokenIds = (1..100).collect { tokenService.verifyJwtToken(tokenService.generateJwtToken(userId)).principal.tokenId }
+
+        then:
+        tokenIds.every { it != null }
+        tokenIds.toSet().size() == 100
+    }
+
     def "Should return false for an invalid token"() {
         expect:
         !tokenService.validateJwtToken("invalid.token.value")
@@ -91,4 +239,72 @@ class TokenValidationServiceSpec extends Specification {
         then:
         thrown(IllegalArgumentException)
     }
+
+    def "ES256 tokens carry the kid of the active key and verify offline with the published JWKS alone"() {
+        given:
+        def keyRing = JwtKeyRing.generated(expirationMs, expirationMs)
+        def service = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, JwtVerifierMode.JJWT, keyRing)
+        def userId = UUID.randomUUID()
+
+        when:
+        def token = service.generateJwtToken(userId)
+        def header = new ObjectMapper().readValue(Base64.urlDecoder.decode(token.tokenize(".")[0]), Map)
+        def jwk = new ObjectMapper().readValue(keyRing.jwks().json, Map).keys.find { it.kid == header.kid }
+        def claims = Jwts.parserBuilder()
+                .setSigningKey(publicKeyOf(jwk))
+                .build()
+                .parseClaimsJws(token)
+                .body
+
+        then:
+        header.alg == "ES256"
+        header.kid == keyRing.activeKey().kid
+        claims.getSubject() == userId.toString()
+        service.verifyJwtToken(token).valid
+        service.verifyJwtToken(token).principal.userId == userId
+    }
+
+    def "ES256 tokens keep verifying after a rotation and the next key signs from then on"() {
+        given:
+        def keyRing = JwtKeyRing.generated(expirationMs, expirationMs)
+        def service = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, JwtVerifierMode.JJWT, keyRing)
+        def before = service.generateJwtToken(UUID.randomUUID())
+        def previousKid = keyRing.activeKey().kid
+
+        when:
+        keyRing.rotate()
+        def after = service.generateJwtToken(UUID.randomUUID())
+        def uncached = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, JwtVerifierMode.JJWT, keyRing)
+
+        then:
+        keyRing.activeKey().kid != previousKid
+        uncached.verifyJwtToken(before).valid
+        uncached.verifyJwtToken(after).valid
+    }
+
+    def "In ES256 mode HS256 tokens, tokens without a kid and tokens from another key ring are rejected"() {
+        given:
+        def keyRing = JwtKeyRing.generated(expirationMs, expirationMs)
+        def service = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE, JwtVerifierMode.JJWT, keyRing)
+        def foreign = new TokenValidationService(secret, expirationMs, TokenValidationService.DEFAULT_CACHE_MAXIMUM_SIZE,
+                JwtVerifierMode.JJWT, JwtKeyRing.generated(expirationMs, expirationMs))
+        def withoutKid = Jwts.builder()
+                .setSubject(UUID.randomUUID().toString())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .signWith(keyRing.activeKey().privateKey, SignatureAlgorithm.ES256)
+                .compact()
+
+        expect:
+        service.verifyJwtToken(tokenService.generateJwtToken(UUID.randomUUID())).outcome == TokenVerification.Outcome.INVALID
+        service.verifyJwtToken(withoutKid).outcome == TokenVerification.Outcome.INVALID
+        service.verifyJwtToken(foreign.generateJwtToken(UUID.randomUUID())).outcome == TokenVerification.Outcome.INVALID
+    }
+
+    private static publicKeyOf(Map jwk) {
+        def parameters = AlgorithmParameters.getInstance("EC")
+        parameters.init(new ECGenParameterSpec("secp256r1"))
+        def point = new ECPoint(new BigInteger(1, Base64.urlDecoder.decode(jwk.x as String)),
+                new BigInteger(1, Base64.urlDecoder.decode(jwk.y as String)))
+        KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec)))
+    }
 }
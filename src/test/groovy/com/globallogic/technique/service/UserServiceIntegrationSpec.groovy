@@ -0,0 +1,185 @@
+package com.globallogic.technique.service
+
+import com.globallogic.technique.config.jwt.JwtPrincipal
+import com.globallogic.technique.dto.request.PhoneDto
+import com.globallogic.technique.dto.request.TokenRefreshRequestDto
+import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.exception.user.UserAlreadyExistsException
+import com.globallogic.technique.repository.UserRepository
+import org.hibernate.SessionFactory
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.cache.CacheManager
+import spock.lang.Specification
+
+import javax.persistence.EntityManagerFactory
+
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserServiceIntegrationSpec extends Specification {
+
+    @Autowired
+    UserService userService
+
+    @Autowired
+    UserRepository userRepository
+
+    @Autowired
+    LastLoginBuffer lastLoginBuffer
+
+    @Autowired
+    CacheManager cacheManager
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory
+
+    def "Signing up twice with the same email is rejected by the unique index"() {
+        given:
+        def request = UserDTO.builder()
+                .name("Unique User")
+                .email("unique-${UUID.randomUUID()}@example.com")
+                .password("Password12")
+                .phones([new PhoneDto(12345678, 1, "+56"), new PhoneDto(87654321, 2, "+56")])
+                .build()
+
+        when:
+        def created = userService.signUp(request)
+        userService.signUp(request)
+
+        then:
+        thrown(UserAlreadyExistsException)
+        userRepository.findById(created.id).isPresent()
+        userRepository.findAll().count { it.email == request.email } == 1
+    }
+
+    def "Batch sign-up inserts new users and reports conflicts per item"() {
+        given:
+        def existing = "existing-${UUID.randomUUID()}@example.com"
+        userService.signUp(UserDTO.builder().email(existing).password("Password12").build())
+
+        def fresh = (1..3).collect { "batch-$it-${UUID.randomUUID()}@example.com".toString() }
+        def requests = fresh.collect {
+            UserDTO.builder()
+                    .email(it)
+                    .password("Password12")
+                    .phones([new PhoneDto(12345678, 1, "+56")])
+                    .build()
+        } + [UserDTO.builder().email(existing).password("Password12").build()]
+
+        when:
+        def results = userService.signUpBatchStream(requests.iterator())
+
+        then:
+        results*.code == [200, 200, 200, 409]
+        results.take(3).every { userRepository.findById(it.user.id).isPresent() }
+        userRepository.findExistingEmails(fresh) == fresh as Set
+    }
+
+    def "Login buffers lastLogin and the flusher persists only the latest timestamp"() {
+        given:
+        def created = userService.signUp(UserDTO.builder()
+                .email("login-${UUID.randomUUID()}@example.com")
+                .password("Password12")
+                .build())
+        def principal = new JwtPrincipal(created.id, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+
+        when:
+        userService.login(principal)
+        def latest = userService.login(principal)
+
+        then:
+        userRepository.findById(created.id).get().lastLogin.truncatedTo(ChronoUnit.MILLIS) == created.lastLogin.truncatedTo(ChronoUnit.MILLIS)
+
+        when:
+        lastLoginBuffer.flush()
+
+        then:
+        lastLoginBuffer.pendingCount() == 0
+        userRepository.findById(created.id).get().lastLogin.truncatedTo(ChronoUnit.MILLIS) == latest.lastLogin.truncatedTo(ChronoUnit.MILLIS)
+    }
+
+    def "Repeated logins are served from the user cache with phones loaded"() {
+        given:
+        def created = userService.signUp(UserDTO.builder()
+                .email("cached-${UUID.randomUUID()}@example.com")
+                .password("Password12")
+                .phones([new PhoneDto(12345678, 1, "+56")])
+                .build())
+        def principal = new JwtPrincipal(created.id, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+        def stats = cacheManager.getCache("users").nativeCache.stats()
+
+        when:
+        def first = userService.login(principal)
+        def second = userService.login(principal)
+        def after = cacheManager.getCache("users").nativeCache.stats().minus(stats)
+
+        then:
+        first.phones*.number == [12345678L]
+        second.phones*.number == [12345678L]
+        after.missCount() == 1
+        after.hitCount() == 1
+    }
+
+    def "An uncached login projects the user and its phones with a single statement and no entity loads"() {
+        given:
+        def created = userService.signUp(UserDTO.builder()
+                .email("statements-${UUID.randomUUID()}@example.com")
+                .password("Password12")
+                .phones([new PhoneDto(12345678, 1, "+56"), new PhoneDto(87654321, 2, "+56")])
+                .build())
+        def principal = new JwtPrincipal(created.id, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
+        def statistics = entityManagerFactory.unwrap(SessionFactory).statistics
+        cacheManager.getCache("users").clear()
+        statistics.clear()
+
+        when:
+        def response = userService.login(principal)
+
+        then:
+        response.phones.size() == 2
+        statistics.prepareStatementCount == 1
+        statistics.queryExecutionCount == 1
+        statistics.entityInsertCount == 0
+        statistics.entityLoadCount == 0
+        statistics.collectionFetchCount == 0
+    }
+
+    def "A token refresh rotates the refresh token without reading the user"() {
+        given:
+        def created = userService.signUp(UserDTO.builder()
+                .email("refresh-${UUID.randomUUID()}@example.com")
+                .password("Password12")
+                .phones([new PhoneDto(12345678, 1, "+56")])
+                .build())
+        def statistics = entityManagerFactory.unwrap(SessionFactory).statistics
+        statistics.clear()
+
+        when:
+        def response = userService.refreshToken(new TokenRefreshRequestDto(created.refreshToken))
+
+        then:
+        response.token
+        response.refreshToken != created.refreshToken
+        // one conditional DELETE of the presented token and one INSERT of its replacement
+        statistics.prepareStatementCount == 2
+        statistics.entityLoadCount == 0
+        statistics.collectionFetchCount == 0
+    }
+
+    def "A user without phones logs in with an empty phone list"() {
+        given:
+        def created = userService.signUp(UserDTO.builder()
+                .email("no-phones-${UUID.randomUUID()}@example.com")
+                .password("Password12")
+                .build())
+
+        when:
+        def response = userService.login(new JwtPrincipal(created.id, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID()))
+
+        then:
+        response.id == created.id
+        response.phones.isEmpty()
+    }
+}
@@ -1,26 +1,45 @@
 package com.globallogic.technique.service
 
+import com.globallogic.technique.config.jwt.JwtPrincipal
+import com.globallogic.technique.dto.request.TokenRefreshRequestDto
 import com.globallogic.technique.dto.request.UserDTO
 import com.globallogic.technique.dto.response.UserResponseDto
 import com.globallogic.technique.dto.response.UserSigUpResponseDto
+import com.globallogic.technique.exception.token.InvalidRefreshTokenException
 import com.globallogic.technique.exception.user.InvalidEmailFormatException
 import com.globallogic.technique.exception.user.InvalidPasswordFormatException
+import com.globallogic.technique.exception.user.MissingRequiredFieldException
+import com.globallogic.technique.exception.user.SignUpCapacityExceededException
 import com.globallogic.technique.exception.user.UserAlreadyExistsException
 import com.globallogic.technique.exception.user.UserNotFoundException
 import com.globallogic.technique.model.User
-import com.globallogic.technique.repository.UserRepository
+import com.globallogic.technique.dto.response.PhoneResponseDto
+import com.globallogic.technique.repository.UserStore
+import com.globallogic.technique.repository.projection.UserLoginView
+import com.globallogic.technique.util.UserRequestValidator
 import com.globallogic.technique.util.mapper.UserMapper
-import org.springframework.security.crypto.password.PasswordEncoder
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.dao.DuplicateKeyException
 import spock.lang.Specification
 
+import java.time.Instant
+import java.time.LocalDateTime
+
 class UserServiceSpec extends Specification {
 
-    def userRepository = Mock(UserRepository)
+    def userStore = Mock(UserStore)
     def userMapper = Mock(UserMapper)
     def tokenService = Mock(TokenValidationService)
-    def encoder = Mock(PasswordEncoder)
+    def passwordHashingService = Mock(PasswordHashingService)
+    def lastLoginBuffer = Mock(LastLoginBuffer)
+    def refreshTokenService = Mock(RefreshTokenService)
+
+    static final int BATCH_MAX_ITEMS = 600
 
-    def userService = new UserService(userRepository, userMapper, tokenService, encoder)
+    def userService = new UserService(userStore, userMapper, new UserRequestValidator(), tokenService, passwordHashingService,
+            new UserLoginQueryService(userStore, false, 0, new SimpleMeterRegistry()), lastLoginBuffer, refreshTokenService, new ConcurrentMapCacheManager("users", "userEmails"), new SimpleMeterRegistry(), BATCH_MAX_ITEMS)
 
     def userDTO
     def user
@@ -44,83 +63,275 @@ class UserServiceSpec extends Specification {
     def "should return UserSigUpResponseDto with token and active user when signUp is successful"() {
         given:
         userMapper.toEntity(userDTO) >> user
-        userRepository.findByEmail(user.email) >> Optional.empty()
         tokenService.generateJwtToken(user) >> "mockToken"
 
         when:
         def result = userService.signUp(userDTO)
 
         then:
+        1 * passwordHashingService.hash("Password12") >> "hashedPassword"
         result instanceof UserSigUpResponseDto
         result.token == "mockToken"
         result.isActive
-        1 * userRepository.save(_ as User)
+        user.password == "hashedPassword"
+        1 * refreshTokenService.issue(user.id) >> "refreshToken"
+        result.refreshToken == "refreshToken"
+        1 * userStore.insert(_ as User)
+        0 * userStore.findByEmail(_)
     }
 
-    def "should throw InvalidEmailFormatException when email is invalid"() {
+    def "should not persist the user when the hashing queue is full"() {
         given:
-        user.email = "bademail"
         userMapper.toEntity(userDTO) >> user
+        passwordHashingService.hash(_) >> { throw new SignUpCapacityExceededException("Too many sign-up requests, try again later") }
+
+        when:
+        userService.signUp(userDTO)
+
+        then:
+        thrown(SignUpCapacityExceededException)
+        0 * userStore.insert(_)
+    }
+
+    def "should throw InvalidEmailFormatException when email is invalid"() {
+        given:
+        userDTO.email = "bademail"
 
         when:
         userService.signUp(userDTO)
 
         then:
         thrown(InvalidEmailFormatException)
+        0 * userMapper.toEntity(_)
     }
 
     def "should throw InvalidPasswordFormatException when password is invalid"() {
         given:
-        user.password = "abc123"
-        userMapper.toEntity(userDTO) >> user
+        userDTO.password = "abc123"
 
         when:
         userService.signUp(userDTO)
 
         then:
         thrown(InvalidPasswordFormatException)
+        0 * userMapper.toEntity(_)
+    }
+
+    def "should throw MissingRequiredFieldException when the email is blank"() {
+        given:
+        userDTO.email = "  "
+
+        when:
+        userService.signUp(userDTO)
+
+        then:
+        def e = thrown(MissingRequiredFieldException)
+        e.message == "email cannot be empty"
     }
 
     def "should throw UserAlreadyExistsException when user already exists"() {
         given:
         userMapper.toEntity(userDTO) >> user
-        userRepository.findByEmail(user.email) >> Optional.of(new User())
+        userStore.insert(_) >> { throw new DuplicateKeyException("duplicate email") }
+
+        when:
+        userService.signUp(userDTO)
+
+        then:
+        thrown(UserAlreadyExistsException)
+    }
+
+    def "should reject a previously seen email before hashing the password"() {
+        given:
+        userMapper.toEntity(userDTO) >> { User.builder().email("test@example.com").password("Password12").build() }
+        userStore.insert(_) >> { throw new DuplicateKeyException("duplicate email") }
+
+        when:
+        userService.signUp(userDTO)
+
+        then:
+        1 * passwordHashingService.hash(_) >> "hashedPassword"
+        thrown(UserAlreadyExistsException)
 
         when:
         userService.signUp(userDTO)
 
         then:
+        0 * passwordHashingService.hash(_)
+        0 * userStore.insert(_)
         thrown(UserAlreadyExistsException)
     }
 
+    def "should rethrow integrity violations unrelated to the email"() {
+        given:
+        userMapper.toEntity(userDTO) >> user
+        userStore.insert(_) >> { throw new DataIntegrityViolationException("could not execute statement") }
+
+        when:
+        userService.signUp(userDTO)
+
+        then:
+        thrown(DataIntegrityViolationException)
+    }
+
+    def "signUpBatchStream returns one result per item in request order"() {
+        given:
+        def requests = [
+                UserDTO.builder().email("first@example.com").password("Password12").build(),
+                UserDTO.builder().email("bademail").password("Password12").build(),
+                UserDTO.builder().email("first@example.com").password("Password12").build(),
+                UserDTO.builder().email("taken@example.com").password("Password12").build(),
+                UserDTO.builder().email("second@example.com").build()
+        ]
+        userMapper.toEntity(_) >> { UserDTO dto -> User.builder().email(dto.email).password(dto.password).build() }
+        tokenService.generateJwtToken(_) >> "mockToken"
+
+        when:
+        def results = userService.signUpBatchStream(requests.iterator())
+
+        then:
+        1 * userStore.findExistingEmails(["first@example.com", "taken@example.com"]) >> (["taken@example.com"] as Set)
+        1 * passwordHashingService.hashAll(["Password12"]) >> ["hashedPassword"]
+        1 * userStore.insertAll({ it*.email == ["first@example.com"] && it*.password == ["hashedPassword"] }) >> { it[0] }
+        0 * passwordHashingService.hash(_)
+        results*.index == [0, 1, 2, 3, 4]
+        results*.code == [200, 400, 409, 409, 400]
+        results[0].user.token == "mockToken"
+        results[0].user.isActive
+        results[1].detail == "Email format is invalid: bademail"
+        results[4].detail == "password cannot be empty"
+    }
+
+    def "signUpBatchStream reports 503 for every pending item when hashing capacity is exhausted"() {
+        given:
+        def requests = [
+                UserDTO.builder().email("first@example.com").password("Password12").build(),
+                UserDTO.builder().email("second@example.com").password("Password12").build()
+        ]
+        userMapper.toEntity(_) >> { UserDTO dto -> User.builder().email(dto.email).password(dto.password).build() }
+        userStore.findExistingEmails(_) >> ([] as Set)
+        passwordHashingService.hashAll(_) >> { throw new SignUpCapacityExceededException("Too many sign-up requests, try again later") }
+
+        when:
+        def results = userService.signUpBatchStream(requests.iterator())
+
+        then:
+        results*.code == [503, 503]
+        0 * userStore.insertAll(_)
+    }
+
+    def "signUpBatchStream signs up chunk by chunk and stops reading at the item cap"() {
+        given:
+        def read = 0
+        def requests = [
+                hasNext: { true },
+                next   : { UserDTO.builder().email("user${read++}@example.com".toString()).password("Password12").build() }
+        ] as Iterator<UserDTO>
+        userMapper.toEntity(_) >> { UserDTO dto -> User.builder().email(dto.email).password(dto.password).build() }
+        userStore.findExistingEmails(_) >> ([] as Set)
+        passwordHashingService.hashAll(_) >> { args -> args[0].collect { "hashed" } }
+        tokenService.generateJwtToken(_) >> "mockToken"
+
+        when:
+        def results = userService.signUpBatchStream(requests)
+
+        then:
+        1 * userStore.insertAll({ it.size() == UserService.BATCH_CHUNK_SIZE }) >> { it[0] }
+        1 * userStore.insertAll({ it.size() == BATCH_MAX_ITEMS - UserService.BATCH_CHUNK_SIZE }) >> { it[0] }
+        read == BATCH_MAX_ITEMS + 1
+        results*.index == (0..BATCH_MAX_ITEMS).toList()
+        results.take(BATCH_MAX_ITEMS)*.code.every { it == 200 }
+        results.last().code == 413
+        results.last().detail == "A batch sign-up accepts at most $BATCH_MAX_ITEMS users"
+    }
+
+    def "signUpBatchStream answers an unreadable item with a 400 and keeps the items before it"() {
+        given:
+        def items = [UserDTO.builder().email("first@example.com").password("Password12").build()].iterator()
+        def requests = [
+                hasNext: { items.hasNext() ? true : { throw new IllegalStateException("Unexpected character") }() },
+                next   : { items.next() }
+        ] as Iterator<UserDTO>
+        userMapper.toEntity(_) >> { UserDTO dto -> User.builder().email(dto.email).password(dto.password).build() }
+        userStore.findExistingEmails(_) >> ([] as Set)
+        passwordHashingService.hashAll(_) >> ["hashed"]
+        userStore.insertAll(_) >> { it[0] }
+        tokenService.generateJwtToken(_) >> "mockToken"
+
+        when:
+        def results = userService.signUpBatchStream(requests)
+
+        then:
+        results*.code == [200, 400]
+        results[1].index == 1
+        results[1].detail == UserService.UNREADABLE_REQUEST_MESSAGE
+    }
+
     def "should return UserResponseDto when login is successful"() {
         given:
-        def bearerToken = "Bearer Token"
-        def userId = UUID.randomUUID().toString()
+        def principal = new JwtPrincipal(user.id, Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
 
-        tokenService.getUserId(bearerToken) >> userId
-        userRepository.findById(UUID.fromString(userId)) >> Optional.of(user)
+        def created = LocalDateTime.now().minusDays(1)
+        userStore.findLoginView(user.id) >> Optional.of(new UserLoginView(user.id, created, true, user.name, user.email, user.password, [
+                PhoneResponseDto.builder().number(12345678L).citycode(1).contrycode("57").build(),
+                PhoneResponseDto.builder().number(87654321L).citycode(2).contrycode("56").build()
+        ]))
+        tokenService.generateJwtToken(user.id) >> "newToken"
 
         when:
-        def result = userService.login(bearerToken)
+        def result = userService.login(principal)
 
         then:
         result instanceof UserResponseDto
         result.email == user.email
+        result.created == created
+        result.token == "newToken"
+        0 * refreshTokenService.issue(_)
+        result.phones*.number == [12345678L, 87654321L]
+        result.lastLogin != null
+        1 * lastLoginBuffer.record(user.id, _ as LocalDateTime)
+        0 * userStore.insert(_)
+        0 * tokenService.getUserId(_)
+        0 * tokenService.validateJwtToken(_)
     }
 
     def "should throw UserNotFoundException when user is not found during login"() {
         given:
-        def bearerToken = "Bearer Token"
-        def userId = UUID.randomUUID().toString()
+        def principal = new JwtPrincipal(UUID.randomUUID(), Instant.now(), Instant.now().plusSeconds(240), UUID.randomUUID())
 
-        tokenService.getUserId(bearerToken) >> userId
-        userRepository.findById(UUID.fromString(userId)) >> Optional.empty()
+        userStore.findLoginView(principal.userId) >> Optional.empty()
 
         when:
-        userService.login(bearerToken)
+        userService.login(principal)
 
         then:
         thrown(UserNotFoundException)
     }
+
+    def "refreshToken rotates the refresh token and signs a new access token without reading the user"() {
+        given:
+        def userId = UUID.randomUUID()
+
+        when:
+        def result = userService.refreshToken(new TokenRefreshRequestDto("presented"))
+
+        then:
+        1 * refreshTokenService.rotate("presented") >> new RefreshTokenService.Rotation(userId, "rotated")
+        1 * tokenService.generateJwtToken(userId) >> "newToken"
+        0 * userStore._
+        result.token == "newToken"
+        result.refreshToken == "rotated"
+    }
+
+    def "refreshToken propagates a rejected refresh token without signing"() {
+        given:
+        refreshTokenService.rotate(_) >> { throw new InvalidRefreshTokenException(RefreshTokenService.INVALID_REFRESH_TOKEN_MESSAGE) }
+
+        when:
+        userService.refreshToken(new TokenRefreshRequestDto("reused"))
+
+        then:
+        thrown(InvalidRefreshTokenException)
+        0 * tokenService.generateJwtToken(_ as UUID)
+    }
 }
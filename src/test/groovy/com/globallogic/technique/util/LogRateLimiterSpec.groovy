@@ -0,0 +1,26 @@
+package com.globallogic.technique.util
+
+import spock.lang.Specification
+
+import java.time.Duration
+
+class LogRateLimiterSpec extends Specification {
+
+    def "One statement passes per interval and the rest are counted as suppressed"() {
+        given:
+        def limiter = new LogRateLimiter(Duration.ofMillis(200))
+
+        expect:
+        limiter.tryAcquire()
+        !limiter.tryAcquire()
+        !limiter.tryAcquire()
+
+        when:
+        sleep(250)
+
+        then:
+        limiter.tryAcquire()
+        limiter.drainSuppressed() == 2
+        limiter.drainSuppressed() == 0
+    }
+}
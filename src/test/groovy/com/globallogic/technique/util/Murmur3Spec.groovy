@@ -0,0 +1,22 @@
+package com.globallogic.technique.util
+
+import spock.lang.Specification
+
+class Murmur3Spec extends Specification {
+
+    def "mix is the MurmurHash3 fmix64 finalizer"() {
+        expect:
+        Murmur3.mix(0L) == 0L
+        Murmur3.mix(1L) == 0xb456bcfc34c2cb2cL
+        Murmur3.mix(2L) == 0x3abf2a20650683e7L
+    }
+
+    def "consecutive ids hash far apart"() {
+        given:
+        def first = new UUID(0x0190a3b4c5d67e8fL, 0x9a0b1c2d3e4f5a6bL)
+        def next = new UUID(0x0190a3b4c5d67e8fL, 0x9a0b1c2d3e4f5a6cL)
+
+        expect:
+        Long.bitCount(Murmur3.hash(first) ^ Murmur3.hash(next)) > 16
+    }
+}
@@ -0,0 +1,79 @@
+package com.globallogic.technique.util
+
+import com.globallogic.technique.dto.request.UserDTO
+import com.globallogic.technique.exception.user.InvalidEmailFormatException
+import com.globallogic.technique.exception.user.InvalidPasswordFormatException
+import com.globallogic.technique.exception.user.MissingRequiredFieldException
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.regex.Pattern
+
+class UserRequestValidatorSpec extends Specification {
+
+    static final Pattern EMAIL_REGEX = Pattern.compile('^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,6}$')
+
+    def validator = new UserRequestValidator()
+
+    @Unroll
+    def "email scanner agrees with the original regex for '#email'"() {
+        expect:
+        UserRequestValidator.isValidEmail(email) == EMAIL_REGEX.matcher(email).matches()
+
+        where:
+        email << [
+                "julio@testssw.cl", "a@b.co", "first.last-name_1@sub.domain.com", "a@b.abcdef", "a@b.abcdefg",
+                "a@b.c", "@b.com", "a@.com", "a@com", "a@b.", "a@@b.com", "a@b@c.com", "a.b@c.d.e.org",
+                "a@b.c0m", "a@b-c.com", "a@b_c.io", "a b@c.com", "a@b.com ", "a@b.com\n", "ñ@b.com", "a@b.cóm",
+                "a@..com", "a@b..com", "a@b.com.", ".@..ab", "a+b@c.com", "", "a@b.COM", "-@-.-a", "a@b.-com"
+        ]
+    }
+
+    @Unroll
+    def "password '#password' is valid: #valid"() {
+        expect:
+        UserRequestValidator.isValidPassword(password) == valid
+
+        where:
+        password        | valid
+        "a2asfGfdfdf4"  | true
+        "Password12"    | true
+        "password12"    | false
+        "PAssword12"    | false
+        "Password123"   | false
+        "Pass12"        | false
+        "Passwordabc12" | false
+        "Password 12"   | false
+        null            | false
+    }
+
+    @Unroll
+    def "first violation of #email / #password is '#message'"() {
+        expect:
+        validator.firstViolation(new UserDTO(null, email, password, null)) == message
+
+        where:
+        email              | password       | message
+        "julio@testssw.cl" | "a2asfGfdfdf4" | null
+        null               | null           | "email cannot be empty"
+        " "                | "a2asfGfdfdf4" | "email cannot be empty"
+        "julio@testssw.cl" | ""             | "password cannot be empty"
+        "bademail"         | "abc"          | "Email format is invalid: bademail"
+        "julio@testssw.cl" | "abc"          | UserRequestValidator.PASSWORD_FORMAT_MESSAGE
+    }
+
+    def "validate throws the exception mapped to each violation"() {
+        when:
+        validator.validate(new UserDTO(null, email, password, null))
+
+        then:
+        thrown(exception)
+
+        where:
+        email              | password | exception
+        ""                 | "x"      | MissingRequiredFieldException
+        "julio@testssw.cl" | null     | MissingRequiredFieldException
+        "bademail"         | "x"      | InvalidEmailFormatException
+        "julio@testssw.cl" | "abc"    | InvalidPasswordFormatException
+    }
+}
@@ -0,0 +1,20 @@
+package com.globallogic.technique.util
+
+import spock.lang.Specification
+
+class UuidBytesSpec extends Specification {
+
+    def "an id survives the round trip through its 16 bytes, most significant bits first"() {
+        given:
+        def id = UUID.fromString("0190a3b4-c5d6-7e8f-9a0b-1c2d3e4f5a6b")
+
+        when:
+        def bytes = UuidBytes.toBytes(id)
+
+        then:
+        bytes.length == UuidBytes.LENGTH
+        bytes[0] == (byte) 0x01
+        bytes[15] == (byte) 0x6b
+        UuidBytes.fromBytes(bytes) == id
+    }
+}
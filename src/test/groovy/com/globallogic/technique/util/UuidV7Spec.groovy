@@ -0,0 +1,75 @@
+package com.globallogic.technique.util
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class UuidV7Spec extends Specification {
+
+    def "ids are version 7 with the RFC variant and carry their creation time"() {
+        given:
+        def before = System.currentTimeMillis()
+
+        when:
+        def id = UuidV7.next()
+
+        then:
+        id.version() == 7
+        id.variant() == 2
+        UuidV7.timestamp(id) >= before
+        UuidV7.timestamp(id) <= System.currentTimeMillis()
+    }
+
+    def "ids of the same millisecond keep increasing, past a counter overflow"() {
+        given:
+        def generator = new UuidV7()
+        def random = new Random(42)
+
+        when:
+        def ids = (0..<10_000).collect { generator.generate(1_700_000_000_000L, random) }
+
+        then:
+        isStrictlyIncreasing(ids)
+        UuidV7.timestamp(ids.first()) == 1_700_000_000_000L
+        UuidV7.timestamp(ids.last()) > 1_700_000_000_000L
+        ids.every { it.version() == 7 && it.variant() == 2 }
+    }
+
+    def "a clock going back does not reorder ids"() {
+        given:
+        def generator = new UuidV7()
+        def random = new Random(42)
+
+        when:
+        def ids = [5_000L, 4_000L, 4_000L, 6_000L].collect { generator.generate(1_700_000_000_000L + it, random) }
+
+        then:
+        isStrictlyIncreasing(ids)
+        UuidV7.timestamp(ids[1]) == 1_700_000_005_000L
+        UuidV7.timestamp(ids[3]) == 1_700_000_006_000L
+    }
+
+    def "concurrent callers get distinct ids, increasing on every thread"() {
+        given:
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        def perThread = executor.invokeAll((0..<4).collect {
+            { -> (0..<20_000).collect { UuidV7.next() } } as Callable<List<UUID>>
+        })*.get()
+
+        then:
+        perThread.every { isStrictlyIncreasing(it) }
+        perThread.flatten().toSet().size() == 80_000
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    private static boolean isStrictlyIncreasing(List<UUID> ids) {
+        // UUID.compareTo compares signed longs, so compare the unsigned byte order instead
+        def keys = ids.collect { it.toString() }
+        (1..<keys.size()).every { keys[it - 1] < keys[it] }
+    }
+}
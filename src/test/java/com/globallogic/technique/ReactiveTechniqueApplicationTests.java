@@ -0,0 +1,16 @@
+package com.globallogic.technique;
+
+import com.globallogic.technique.config.ReactiveStack;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles(ReactiveStack.PROFILE)
+class ReactiveTechniqueApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}